@@ -0,0 +1,4 @@
+class Untagged
+{
+    int value = 1;
+}
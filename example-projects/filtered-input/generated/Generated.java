@@ -0,0 +1,4 @@
+// [impl->req~generatedRequirement~1]
+public class Generated
+{
+}
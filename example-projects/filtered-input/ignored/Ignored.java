@@ -0,0 +1,4 @@
+// [impl->req~ignoredRequirement~1]
+public class Ignored
+{
+}
@@ -0,0 +1,4 @@
+// [impl->req~filteredInput~1]
+public class Example
+{
+}
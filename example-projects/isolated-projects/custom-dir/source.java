@@ -0,0 +1 @@
+// [itest->dsn~sub1.tagname2~2]
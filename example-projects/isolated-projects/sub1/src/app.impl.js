@@ -0,0 +1 @@
+// [[tagname1:1]]
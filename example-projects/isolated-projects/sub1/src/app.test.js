@@ -0,0 +1 @@
+// [[tagname2:2]]
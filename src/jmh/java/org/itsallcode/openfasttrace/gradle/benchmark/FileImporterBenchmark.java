@@ -0,0 +1,56 @@
+package org.itsallcode.openfasttrace.gradle.benchmark;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.importer.ImportSettings;
+import org.itsallcode.openfasttrace.core.Oft;
+import org.itsallcode.openfasttrace.core.OftRunner;
+import org.itsallcode.openfasttrace.gradle.task.importer.FileImporter;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks importing all files one by one as {@code collectRequirements}
+ * does in a clean build. {@link #importEachFileWithOft(RequirementsCorpus)} is
+ * the baseline that imports each file with a separate call to
+ * {@link Oft#importItems(ImportSettings)}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FileImporterBenchmark
+{
+    private final Oft oft = new OftRunner();
+
+    @Benchmark
+    public List<SpecificationItem> importEachFileWithOft(final RequirementsCorpus corpus)
+    {
+        final List<SpecificationItem> items = new ArrayList<>();
+        for (final Path file : corpus.getFiles())
+        {
+            items.addAll(oft.importItems(ImportSettings.builder() //
+                    .addInputs(file) //
+                    .pathConfigs(corpus.getPathConfigs()) //
+                    .build()));
+        }
+        return items;
+    }
+
+    @Benchmark
+    public List<SpecificationItem> importEachFileWithFileImporter(final RequirementsCorpus corpus)
+    {
+        final FileImporter importer = new FileImporter(oft, corpus.getPathConfigs());
+        final List<SpecificationItem> items = new ArrayList<>();
+        for (final Path file : corpus.getFiles())
+        {
+            items.addAll(importer.importFile(file));
+        }
+        return items;
+    }
+}
@@ -0,0 +1,145 @@
+package org.itsallcode.openfasttrace.gradle.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.itsallcode.openfasttrace.api.*;
+import org.itsallcode.openfasttrace.api.core.*;
+import org.itsallcode.openfasttrace.api.importer.ImportSettings;
+import org.itsallcode.openfasttrace.api.report.ReportVerbosity;
+import org.itsallcode.openfasttrace.core.Oft;
+import org.itsallcode.openfasttrace.core.OftRunner;
+import org.itsallcode.openfasttrace.gradle.task.exporter.ParallelReportWriter;
+import org.itsallcode.openfasttrace.gradle.task.exporter.ParallelReportWriter.Report;
+import org.itsallcode.openfasttrace.gradle.task.exporter.SpecobjectWriter;
+import org.itsallcode.openfasttrace.gradle.task.importer.FileImporter;
+import org.itsallcode.openfasttrace.gradle.task.importer.ItemFilter;
+import org.itsallcode.openfasttrace.gradle.task.importer.ParallelFileImporter;
+import org.itsallcode.openfasttrace.gradle.task.linker.IncrementalLinker;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks the steps that {@code collectRequirements} and
+ * {@code traceRequirements} run for each build using the plugin's own
+ * implementation: {@link ParallelFileImporter}, {@link SpecobjectWriter},
+ * {@link ItemFilter}, {@link IncrementalLinker} and
+ * {@link ParallelReportWriter}.
+ * <p>
+ * The methods ending with {@code WithOft} are baselines that run the same
+ * steps with a single call to the OFT API each.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PipelineBenchmark
+{
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+    // The corpus only contains design requirements and implementation tags
+    private static final FilterSettings DESIGN_VIEW = FilterSettings.builder()
+            .artifactTypes(Set.of("dsn")).build();
+    private static final ReportSettings REPORT_SETTINGS = ReportSettings.builder() //
+            .verbosity(ReportVerbosity.FAILURE_DETAILS) //
+            .outputFormat("plain") //
+            .showOrigin(true) //
+            .newline(Newline.UNIX) //
+            .build();
+
+    private final Oft oft = new OftRunner();
+    private List<SpecificationItem> items;
+    private Path outputFile;
+
+    @Setup(Level.Trial)
+    public void importCorpus(final RequirementsCorpus corpus) throws IOException
+    {
+        items = importItemsWithOft(corpus);
+        outputFile = Files.createTempFile("oft-benchmark", ".out");
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteOutput() throws IOException
+    {
+        Files.deleteIfExists(outputFile);
+    }
+
+    @Benchmark
+    public List<SpecificationItem> importItems(final RequirementsCorpus corpus)
+    {
+        final ParallelFileImporter importer = new ParallelFileImporter(
+                new FileImporter(oft, corpus.getPathConfigs()), PARALLELISM);
+        final List<SpecificationItem> importedItems = new ArrayList<>();
+        importer.importFiles(corpus.getFiles()).values().forEach(importedItems::addAll);
+        return importedItems;
+    }
+
+    @Benchmark
+    public List<SpecificationItem> importItemsWithOft(final RequirementsCorpus corpus)
+    {
+        return oft.importItems(ImportSettings.builder() //
+                .addInputs(corpus.getFiles()) //
+                .pathConfigs(corpus.getPathConfigs()) //
+                .build());
+    }
+
+    @Benchmark
+    public void exportSpecobject() throws IOException
+    {
+        try (SpecobjectWriter writer = SpecobjectWriter.create(outputFile))
+        {
+            writer.write(items);
+        }
+    }
+
+    @Benchmark
+    public Trace linkAndTrace()
+    {
+        return new IncrementalLinker().link(oft, items).toTrace();
+    }
+
+    @Benchmark
+    public Trace linkAndTraceWithOft()
+    {
+        return oft.trace(oft.link(items));
+    }
+
+    /**
+     * Trace the main view and a view filtered by artifact type with a shared
+     * linker as {@code traceRequirements} does.
+     *
+     * @return the trace of the filtered view
+     */
+    @Benchmark
+    public Trace traceViews()
+    {
+        final IncrementalLinker linker = new IncrementalLinker();
+        final ParallelReportWriter reportWriter = new ParallelReportWriter(oft, PARALLELISM);
+        final Trace mainTrace = linker.link(oft, items).toTrace();
+        reportWriter.write(mainTrace, List.of(new Report(outputFile, REPORT_SETTINGS)));
+        final List<SpecificationItem> viewItems = new ItemFilter(DESIGN_VIEW).filter(items);
+        final Trace viewTrace = linker.link(oft, viewItems).toTrace();
+        reportWriter.write(viewTrace, List.of(new Report(outputFile, REPORT_SETTINGS)));
+        return viewTrace;
+    }
+
+    @Benchmark
+    public Trace importLinkTraceReport(final RequirementsCorpus corpus)
+    {
+        final Trace trace = new IncrementalLinker().link(oft, importItems(corpus)).toTrace();
+        new ParallelReportWriter(oft, PARALLELISM).write(trace,
+                List.of(new Report(outputFile, REPORT_SETTINGS)));
+        return trace;
+    }
+
+    @Benchmark
+    public Trace importLinkTraceReportWithOft(final RequirementsCorpus corpus)
+    {
+        final Trace trace = oft.trace(oft.link(importItemsWithOft(corpus)));
+        oft.reportToPath(trace, outputFile, REPORT_SETTINGS);
+        return trace;
+    }
+}
@@ -0,0 +1,63 @@
+package org.itsallcode.openfasttrace.gradle.benchmark;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.itsallcode.openfasttrace.api.importer.tag.config.PathConfig;
+import org.itsallcode.openfasttrace.gradle.corpus.GeneratedCorpus;
+import org.itsallcode.openfasttrace.gradle.corpus.RequirementsCorpusGenerator;
+import org.itsallcode.openfasttrace.gradle.corpus.RequirementsCorpusGenerator.FileSizeDistribution;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Synthetic requirements in Markdown files and source files with coverage
+ * tags. Half of the items are design requirements, the other half are
+ * implementation tags covering them.
+ */
+@State(Scope.Benchmark)
+public class RequirementsCorpus
+{
+    @Param({ "1000", "10000", "100000", "1000000" })
+    public int itemCount;
+
+    private Path directory;
+    private GeneratedCorpus corpus;
+
+    @Setup(Level.Trial)
+    public void createFiles() throws IOException
+    {
+        directory = Files.createTempDirectory("oft-benchmark");
+        corpus = RequirementsCorpusGenerator.builder() //
+                .requirementCount(itemCount / 2) //
+                .artifactTypes(List.of("dsn")) //
+                .tagDensity(0.2) //
+                .fileSize(FileSizeDistribution.SKEWED, 100, 10_000) //
+                .build() //
+                .generate(directory);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException
+    {
+        try (Stream<Path> paths = Files.walk(directory))
+        {
+            for (final Path path : paths.sorted(Comparator.reverseOrder()).toList())
+            {
+                Files.delete(path);
+            }
+        }
+    }
+
+    public List<Path> getFiles()
+    {
+        return corpus.allFiles();
+    }
+
+    public List<PathConfig> getPathConfigs()
+    {
+        return List.of(corpus.createPathConfig());
+    }
+}
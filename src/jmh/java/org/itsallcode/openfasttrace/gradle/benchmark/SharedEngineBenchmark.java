@@ -0,0 +1,72 @@
+package org.itsallcode.openfasttrace.gradle.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.itsallcode.openfasttrace.api.core.Trace;
+import org.itsallcode.openfasttrace.api.importer.ImportSettings;
+import org.itsallcode.openfasttrace.core.Oft;
+import org.itsallcode.openfasttrace.core.OftRunner;
+import org.itsallcode.openfasttrace.gradle.task.exporter.SpecobjectWriter;
+import org.itsallcode.openfasttrace.gradle.task.importer.FileImporter;
+import org.itsallcode.openfasttrace.gradle.task.importer.ImporterFactoryTypes;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks the work {@code traceRequirements} does for the collected
+ * specobject file. {@link #traceWithNewEngine()} is the baseline that creates
+ * a new engine and looks up the importer plugins for each run,
+ * {@link #traceWithSharedEngine()} reuses the engine and the plugins found by
+ * {@code OftEngineService}. The difference is the fixed overhead saved per
+ * task, so it is best seen with small corpora.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SharedEngineBenchmark
+{
+    private final Oft sharedOft = new OftRunner();
+    private final ImporterFactoryTypes importerFactoryTypes = ImporterFactoryTypes.load();
+    private Path collectedFile;
+
+    @Setup(Level.Trial)
+    public void collectCorpus(final RequirementsCorpus corpus) throws IOException
+    {
+        collectedFile = Files.createTempFile("oft-benchmark", ".xml");
+        try (SpecobjectWriter writer = SpecobjectWriter.create(collectedFile))
+        {
+            writer.write(sharedOft.importItems(ImportSettings.builder() //
+                    .addInputs(corpus.getFiles()) //
+                    .pathConfigs(corpus.getPathConfigs()) //
+                    .build()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteCollectedFile() throws IOException
+    {
+        Files.deleteIfExists(collectedFile);
+    }
+
+    @Benchmark
+    public Trace traceWithNewEngine()
+    {
+        final Oft oft = new OftRunner();
+        return oft.trace(oft.link(
+                oft.importItems(ImportSettings.builder().addInputs(collectedFile).build())));
+    }
+
+    @Benchmark
+    public Trace traceWithSharedEngine()
+    {
+        final FileImporter importer = new FileImporter(sharedOft, List.of(),
+                importerFactoryTypes.createFactories());
+        return sharedOft.trace(sharedOft.link(importer.importFile(collectedFile)));
+    }
+}
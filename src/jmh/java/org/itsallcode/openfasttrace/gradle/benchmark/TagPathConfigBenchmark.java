@@ -0,0 +1,69 @@
+package org.itsallcode.openfasttrace.gradle.benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.itsallcode.openfasttrace.api.importer.tag.config.PathConfig;
+import org.itsallcode.openfasttrace.core.Oft;
+import org.itsallcode.openfasttrace.core.OftRunner;
+import org.itsallcode.openfasttrace.gradle.config.TagPathConfiguration;
+import org.itsallcode.openfasttrace.gradle.task.config.SerializableTagPathConfig;
+import org.itsallcode.openfasttrace.gradle.task.importer.FileImporter;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks converting the {@code tags} configuration for the workers and
+ * assembling the import settings from it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TagPathConfigBenchmark
+{
+    @Param({ "1000", "10000", "100000", "1000000" })
+    public int pathCount;
+
+    private final Oft oft = new OftRunner();
+    private File rootDirectory;
+    private TagPathConfiguration tagPathConfig;
+    private List<PathConfig> pathConfigs;
+
+    @Setup(Level.Trial)
+    public void createConfig()
+    {
+        final Project project = ProjectBuilder.builder().build();
+        rootDirectory = project.getRootDir();
+        final List<File> paths = new ArrayList<>(pathCount);
+        for (int i = 0; i < pathCount; i++)
+        {
+            paths.add(project.file("src/main/java/Source" + i + ".java"));
+        }
+        tagPathConfig = new TagPathConfiguration(project);
+        tagPathConfig.tag(tag -> {
+            tag.paths = project.files(paths);
+            tag.tagArtifactType = "impl";
+            tag.coveredItemArtifactType = "dsn";
+        });
+        pathConfigs = convertPathConfig();
+    }
+
+    @Benchmark
+    public List<PathConfig> convertPathConfig()
+    {
+        return new SerializableTagPathConfig(tagPathConfig, rootDirectory)
+                .getPathConfig(rootDirectory).toList();
+    }
+
+    @Benchmark
+    public FileImporter createFileImporter()
+    {
+        return new FileImporter(oft, pathConfigs);
+    }
+}
@@ -1,39 +1,117 @@
 package org.itsallcode.openfasttrace.gradle;
 
-import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toSet;
-
 import java.io.File;
 import java.util.*;
-import java.util.stream.Stream;
+
+import javax.inject.Inject;
 
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.ResolvableDependencies;
+import org.gradle.api.artifacts.dsl.DependencyHandler;
+import org.gradle.api.artifacts.transform.TransformAction;
+import org.gradle.api.artifacts.transform.TransformParameters;
+import org.gradle.api.artifacts.type.ArtifactTypeDefinition;
+import org.gradle.api.attributes.Usage;
+import org.gradle.api.configuration.BuildFeatures;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.RegularFile;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.plugins.ExtensionAware;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.TaskProvider;
+import org.itsallcode.openfasttrace.api.report.ReportVerbosity;
+import org.itsallcode.openfasttrace.gradle.config.GitignorePatterns;
+import org.itsallcode.openfasttrace.gradle.config.IntermediateFormat;
+import org.itsallcode.openfasttrace.gradle.config.ReportConfiguration;
 import org.itsallcode.openfasttrace.gradle.config.TagPathConfiguration;
 import org.itsallcode.openfasttrace.gradle.config.TracingConfig;
+import org.itsallcode.openfasttrace.gradle.config.ViewConfiguration;
+import org.itsallcode.openfasttrace.gradle.service.OftEngineService;
+import org.itsallcode.openfasttrace.gradle.task.AbstractOftTask;
 import org.itsallcode.openfasttrace.gradle.task.CollectTask;
+import org.itsallcode.openfasttrace.gradle.task.NormalizeTask;
 import org.itsallcode.openfasttrace.gradle.task.TraceTask;
+import org.itsallcode.openfasttrace.gradle.task.cache.BinaryRequirementsFormat;
+import org.itsallcode.openfasttrace.gradle.task.config.SerializableReportConfig;
 import org.itsallcode.openfasttrace.gradle.task.config.SerializableTagPathConfig;
+import org.itsallcode.openfasttrace.gradle.task.config.SerializableViewConfig;
+import org.itsallcode.openfasttrace.gradle.transform.RelocatableRequirementsArtifactTransform;
+import org.itsallcode.openfasttrace.gradle.transform.RequirementsArtifactTransform;
+import org.itsallcode.openfasttrace.gradle.transform.UntransformedArtifacts;
 import org.slf4j.Logger;
 
-public class OpenFastTracePlugin implements Plugin<Project>
+public abstract class OpenFastTracePlugin implements Plugin<Project>
 {
+    /**
+     * Gradle property that enables project isolation mode. In this mode the
+     * plugin must be applied to each project and only configures the project
+     * it is applied to. The mode is also enabled when Gradle's Isolated
+     * Projects feature is active.
+     */
+    public static final String PROJECT_ISOLATION_PROPERTY = //
+            "org.itsallcode.openfasttrace.projectIsolation";
+
     private static final Logger LOG = Logging.getLogger(OpenFastTracePlugin.class);
     private static final String TASK_GROUP_NAME = "trace";
+    private static final String COLLECT_TASK_NAME = "collectRequirements";
+    private static final String NORMALIZE_TASK_NAME = "normalizeRequirementInputs";
+    private static final String IMPORTED_REQUIREMENTS_CONFIG_NAME = "oftRequirementConfig";
+    private static final String OUTGOING_REQUIREMENTS_CONFIG_NAME = "oftRequirements";
+    private static final String PROJECT_REQUIREMENTS_CONFIG_NAME = "oftProjectRequirements";
+    private static final String REQUIREMENTS_USAGE = "openfasttrace-requirements";
+
+    @Inject
+    protected abstract BuildFeatures getBuildFeatures();
 
     @Override
-    public void apply(final Project rootProject)
+    public void apply(final Project project)
+    {
+        LOG.info("Initializing OpenFastTrack plugin for project '{}'", project);
+        if (isProjectIsolationEnabled(project))
+        {
+            configureProject(project, true);
+        }
+        else
+        {
+            project.allprojects(eachProject -> configureProject(eachProject, false));
+        }
+    }
+
+    private boolean isProjectIsolationEnabled(final Project project)
     {
-        LOG.info("Initializing OpenFastTrack plugin for project '{}'", rootProject);
-        rootProject.allprojects(OpenFastTracePlugin::createConfigDsl);
-        createTasks(rootProject);
+        return getBuildFeatures().getIsolatedProjects().getActive().getOrElse(false)
+                || Boolean.parseBoolean(project.getProviders()
+                        .gradleProperty(PROJECT_ISOLATION_PROPERTY).getOrElse("false"));
     }
 
-    private static void createConfigDsl(final Project project)
+    /**
+     * Compare paths instead of accessing the root project, which is not
+     * allowed with Isolated Projects.
+     */
+    private static boolean isRootProject(final Project project)
+    {
+        return project.getPath().equals(project.getIsolated().getRootProject().getPath());
+    }
+
+    private static void configureProject(final Project project, final boolean projectIsolation)
+    {
+        createConfigDsl(project, projectIsolation);
+        final TaskProvider<NormalizeTask> normalizeTask = createNormalizeTask(project);
+        final TaskProvider<CollectTask> collectTask = createCollectTask(project, normalizeTask);
+        createOutgoingRequirements(project, collectTask);
+        if (isRootProject(project))
+        {
+            final FileCollection projectRequirements = getProjectRequirements(project,
+                    projectIsolation);
+            collectTask.configure(task -> task.getRequirementFragments().from(projectRequirements));
+            createTracingTask(project, collectTask, projectIsolation);
+        }
+    }
+
+    private static void createConfigDsl(final Project project, final boolean projectIsolation)
     {
         LOG.info("Setting up plugin configuration for project '{}'", project.getName());
 
@@ -41,100 +119,383 @@ public class OpenFastTracePlugin implements Plugin<Project>
                 TracingConfig.class, project);
         ((ExtensionAware) tracingConfig).getExtensions().create("tags", TagPathConfiguration.class,
                 project);
+        ((ExtensionAware) tracingConfig).getExtensions().create("reports",
+                ReportConfiguration.class);
+        ((ExtensionAware) tracingConfig).getExtensions().create("views", ViewConfiguration.class);
+        createImportedRequirementsConfiguration(project);
+        if (!isRootProject(project) && !projectIsolation)
+        {
+            final TracingConfig rootConfig = getConfig(project.getRootProject());
+            tracingConfig.getWorkerIsolation().convention(rootConfig.getWorkerIsolation());
+            tracingConfig.getWorkerMaxHeapSize().convention(rootConfig.getWorkerMaxHeapSize());
+            tracingConfig.getWorkerJvmArgs().convention(rootConfig.getWorkerJvmArgs());
+            tracingConfig.getIntermediateFormat().convention(rootConfig.getIntermediateFormat());
+            tracingConfig.getStreamingCollect().convention(rootConfig.getStreamingCollect());
+            tracingConfig.getRelocatable().convention(rootConfig.getRelocatable());
+            tracingConfig.getItemCacheSize().convention(rootConfig.getItemCacheSize());
+            tracingConfig.getNormalizeInputs().convention(rootConfig.getNormalizeInputs());
+        }
     }
 
-    private static void createTasks(final Project rootProject)
+    private static TaskProvider<NormalizeTask> createNormalizeTask(final Project project)
     {
-        LOG.info("Creating tasks for project '{}'", rootProject.getName());
-        final TaskProvider<CollectTask> collectTask = createCollectTask(rootProject);
-        createTracingTask(rootProject, collectTask);
+        return project.getTasks().register(NORMALIZE_TASK_NAME, NormalizeTask.class, task -> {
+            task.setGroup(TASK_GROUP_NAME);
+            task.setDescription("Extract the requirement-relevant content of the input files");
+            task.getSourceFiles().from(getInputFiles(project), getTagPaths(project));
+            task.getRootDirectory()
+                    .set(project.getIsolated().getRootProject().getProjectDirectory());
+            task.getManifestFile()
+                    .set(project.getLayout().getBuildDirectory().file("oft/normalized-inputs.txt"));
+            task.getImportParallelism()
+                    .set(project.getGradle().getStartParameter().getMaxWorkerCount());
+        });
     }
 
-    private static TaskProvider<CollectTask> createCollectTask(final Project rootProject)
+    private static TaskProvider<CollectTask> createCollectTask(final Project project,
+            final TaskProvider<NormalizeTask> normalizeTask)
     {
-        return rootProject.getTasks().register("collectRequirements", CollectTask.class, task -> {
-            task.setGroup(TASK_GROUP_NAME);
-            task.setDescription("Collect requirements and generate specobject file");
-            task.getInputDirectories().set(getAllInputDirectories(rootProject.getAllprojects()));
-            task.getOutputFile()
-                    .set(new File(rootProject.getLayout().getBuildDirectory().getAsFile().get(),
-                            "reports/requirements.xml"));
-            task.getPathConfig().set(getPathConfig(rootProject.getAllprojects()));
+        return project.getTasks().register(COLLECT_TASK_NAME, CollectTask.class, task -> {
+            if (isRootProject(project))
+            {
+                task.setDescription("Collect requirements and generate specobject file");
+            }
+            else
+            {
+                task.setDescription("Collect requirements of project '" + project.getPath()
+                        + "' and generate specobject file");
+            }
+            configureCollectTask(project, task, normalizeTask);
         });
     }
 
-    private static void createTracingTask(final Project rootProject,
+    /**
+     * Publish the collected requirements of the project as a variant that the
+     * root project consumes via a project dependency.
+     */
+    private static void createOutgoingRequirements(final Project project,
             final TaskProvider<CollectTask> collectTask)
+    {
+        final Usage usage = project.getObjects().named(Usage.class, REQUIREMENTS_USAGE);
+        project.getConfigurations().create(OUTGOING_REQUIREMENTS_CONFIG_NAME, config -> {
+            config.setDescription("Requirements collected by this project");
+            config.setCanBeConsumed(true);
+            config.setCanBeResolved(false);
+            config.getAttributes().attribute(Usage.USAGE_ATTRIBUTE, usage);
+            config.getOutgoing().artifact(
+                    collectTask.flatMap(OpenFastTracePlugin::getIntermediateFile),
+                    artifact -> artifact.builtBy(collectTask));
+        });
+    }
+
+    /**
+     * Requirements of subprojects resolved from their outgoing variants. With
+     * project isolation the root project can't inspect its subprojects, so
+     * the build script declares the subprojects to trace as dependencies of
+     * this configuration.
+     */
+    private static FileCollection getProjectRequirements(final Project rootProject,
+            final boolean projectIsolation)
+    {
+        final Usage usage = rootProject.getObjects().named(Usage.class, REQUIREMENTS_USAGE);
+        final Configuration configuration = rootProject.getConfigurations()
+                .create(PROJECT_REQUIREMENTS_CONFIG_NAME, config -> {
+                    config.setDescription("Requirements collected by subprojects");
+                    config.setCanBeConsumed(false);
+                    config.setCanBeResolved(true);
+                    config.getAttributes().attribute(Usage.USAGE_ATTRIBUTE, usage);
+                });
+        if (!projectIsolation)
+        {
+            final DependencyHandler dependencies = rootProject.getDependencies();
+            final Provider<List<Dependency>> projectDependencies = rootProject.provider(
+                    () -> rootProject.getSubprojects().stream() //
+                            .filter(OpenFastTracePlugin::hasRequirementInputs) //
+                            .map(project -> dependencies
+                                    .project(Map.of("path", project.getPath()))) //
+                            .toList());
+            configuration.getDependencies().addAllLater(projectDependencies);
+        }
+        return configuration.getIncoming().getFiles();
+    }
+
+    private static void configureCollectTask(final Project project, final CollectTask task,
+            final TaskProvider<NormalizeTask> normalizeTask)
+    {
+        task.setGroup(TASK_GROUP_NAME);
+        task.getInputDirectories().set(getConfig(project).getInputDirectories().getFiles());
+        if (getConfig(project).getNormalizeInputs().get())
+        {
+            // Input files are only fingerprinted by the normalize task
+            task.getInputFiles().setFrom();
+            task.getNormalizedInputsFile()
+                    .set(normalizeTask.flatMap(NormalizeTask::getManifestFile));
+        }
+        else
+        {
+            task.getInputFiles().setFrom(getInputFiles(project));
+            task.getTagPathFiles().setFrom(getTagPaths(project));
+        }
+        task.getCollectedInputsFile()
+                .set(project.getLayout().getBuildDirectory().file("oft/collected-inputs.txt"));
+        task.getOutputFile().set(new File(project.getLayout().getBuildDirectory().getAsFile().get(),
+                "reports/requirements.xml"));
+        task.getImportCacheFile()
+                .set(project.getLayout().getBuildDirectory().file("oft/import-cache.bin"));
+        if (getConfig(project).getIntermediateFormat().get() == IntermediateFormat.BINARY)
+        {
+            task.getBinaryOutputFile().set(project.getLayout().getBuildDirectory()
+                    .file("oft/requirements" + BinaryRequirementsFormat.FILE_EXTENSION));
+        }
+        task.getPathConfig().set(getTagPathConfig(project).stream().toList());
+        task.getStreaming().set(getConfig(project).getStreamingCollect());
+        task.getImportParallelism()
+                .set(project.getGradle().getStartParameter().getMaxWorkerCount());
+        task.getMetricsFile()
+                .set(project.getLayout().getBuildDirectory().file("reports/collect-metrics.json"));
+        configureOftTask(project, task);
+    }
+
+    private static List<Object> getInputFiles(final Project project)
+    {
+        final TracingConfig config = getConfig(project);
+        final List<String> includes = config.getInputIncludes().get();
+        final List<String> excludes = config.getInputExcludes().get();
+        final boolean respectGitignore = config.getRespectGitignore().get();
+        final List<Object> inputFiles = new ArrayList<>();
+        for (final File input : config.getInputDirectories().getFiles())
+        {
+            if (input.isFile())
+            {
+                inputFiles.add(input);
+                continue;
+            }
+            // Patterns are applied while walking the tree, so excluded
+            // directories are not visited at all
+            inputFiles.add(project.fileTree(input, tree -> {
+                tree.include(includes);
+                tree.exclude(excludes);
+                if (respectGitignore)
+                {
+                    tree.exclude(getGitignorePatterns(project, input));
+                }
+            }));
+        }
+        return inputFiles;
+    }
+
+    private static List<FileCollection> getTagPaths(final Project project)
+    {
+        return getConfig(project).getTagPathConfig().getPathConfig().stream()
+                .map(tagConfig -> tagConfig.paths).filter(Objects::nonNull).toList();
+    }
+
+    private static List<String> getGitignorePatterns(final Project project, final File directory)
+    {
+        final RegularFile gitignore = project.getLayout().getProjectDirectory()
+                .file(new File(directory, ".gitignore").getAbsolutePath());
+        final String content = project.getProviders().fileContents(gitignore).getAsText()
+                .getOrNull();
+        return content == null ? List.of() : GitignorePatterns.toExcludePatterns(content);
+    }
+
+    private static void configureOftTask(final Project project, final AbstractOftTask task)
+    {
+        final TracingConfig config = getConfig(project);
+        task.getWorkerIsolation().set(config.getWorkerIsolation());
+        task.getWorkerMaxHeapSize().set(config.getWorkerMaxHeapSize());
+        task.getWorkerJvmArgs().set(config.getWorkerJvmArgs());
+        task.getRelocatable().set(config.getRelocatable());
+        task.getRootDirectory()
+                .set(project.getIsolated().getRootProject().getProjectDirectory());
+        final Provider<OftEngineService> engineService = project.getGradle().getSharedServices()
+                .registerIfAbsent(OftEngineService.NAME, OftEngineService.class,
+                        spec -> spec.getParameters().getItemCacheSize()
+                                .set(config.getItemCacheSize()));
+        task.getEngineService().set(engineService);
+        task.usesService(engineService);
+    }
+
+    private static Provider<RegularFile> getIntermediateFile(final CollectTask task)
+    {
+        return task.getBinaryOutputFile().orElse(task.getOutputFile());
+    }
+
+    private static boolean hasRequirementInputs(final Project project)
+    {
+        final TracingConfig config = getConfig(project);
+        return !config.getInputDirectories().isEmpty()
+                || !config.getTagPathConfig().getPathConfig().isEmpty();
+    }
+
+    private static void createTracingTask(final Project rootProject,
+            final TaskProvider<CollectTask> collectTask, final boolean projectIsolation)
     {
         rootProject.getTasks().register("traceRequirements", TraceTask.class,
-                task -> configureTask(rootProject, collectTask, task));
+                task -> configureTask(rootProject, collectTask, task, projectIsolation));
     }
 
     private static void configureTask(final Project rootProject,
-            final TaskProvider<CollectTask> collectTask, final TraceTask task)
+            final TaskProvider<CollectTask> collectTask, final TraceTask task,
+            final boolean projectIsolation)
     {
         task.setGroup(TASK_GROUP_NAME);
         task.setDescription("Trace requirements and generate tracing report");
         task.dependsOn(collectTask);
         final TracingConfig config = getConfig(rootProject);
         task.getFailBuild().set(config.getFailBuild());
-        task.getRequirementsFile().set(collectTask.get().getOutputFile());
+        task.getRequirementsFile().set(getIntermediateFile(collectTask.get()));
         if (config.getReportFile().isPresent())
         {
             task.getOutputFile().set(config.getReportFile());
         }
         else
         {
-            final String extension = "html".equals(config.getReportFormat().get()) ? "html" : "txt";
-            task.getOutputFile()
-                    .set(new File(rootProject.getLayout().getBuildDirectory().getAsFile().get(),
-                            "reports/tracing." + extension));
+            task.getOutputFile().set(getReportsFile(rootProject,
+                    "tracing." + getReportExtension(config.getReportFormat().get())));
         }
         task.getReportVerbosity().set(config.getReportVerbosity());
         task.getReportFormat().set(config.getReportFormat());
-        task.getImportedRequirements().set(getImportedRequirements(rootProject.getAllprojects()));
+        task.getAdditionalReports().set(getAdditionalReports(rootProject));
+        task.getViews().set(getViews(rootProject));
+        task.getReportParallelism()
+                .set(rootProject.getGradle().getStartParameter().getMaxWorkerCount());
+        if (projectIsolation)
+        {
+            task.getImportedRequirements().from(getImportedRequirements(rootProject));
+        }
+        else
+        {
+            rootProject.getAllprojects().forEach(project -> task.getImportedRequirements()
+                    .from(getImportedRequirements(project)));
+        }
         task.getFilteredArtifactTypes().set(config.getFilteredArtifactTypes());
         task.getFilteredTags().set(config.getFilteredTags());
         task.getFilterAcceptsItemsWithoutTag().set(config.getFilterAcceptsItemsWithoutTag());
         task.getDetailsSectionDisplay().set(config.getDetailsSectionDisplay());
+        task.getMetricsFile().set(rootProject.getLayout().file(task.getOutputFile().map(
+                report -> new File(report.getAsFile().getParentFile(), "tracing-metrics.json"))));
+        configureOftTask(rootProject, task);
     }
 
-    private static Set<File> getAllInputDirectories(final Set<Project> allProjects)
+    private static List<SerializableReportConfig> getAdditionalReports(final Project project)
     {
-        return allProjects.stream() //
-                .map(project -> getConfig(project).getInputDirectories().getFiles()) //
-                .flatMap(Set::stream) //
-                .collect(toSet());
+        final TracingConfig config = getConfig(project);
+        return config.getReportConfig().getReports().stream()
+                .map(report -> createReportConfig(project, report.file, report.format,
+                        report.verbosity, null))
+                .toList();
     }
 
-    private static Set<File> getImportedRequirements(final Set<Project> allProjects)
+    private static List<SerializableViewConfig> getViews(final Project project)
     {
-        return allProjects.stream() //
-                .flatMap(OpenFastTracePlugin::getImportedRequirements) //
-                .collect(toSet());
+        final TracingConfig config = getConfig(project);
+        return config.getViewConfig().getViews().stream()
+                .map(view -> new SerializableViewConfig(view.getName(),
+                        toSet(view.filteredArtifactTypes), toSet(view.filteredTags),
+                        view.filterAcceptsItemsWithoutTag != null
+                                ? view.filterAcceptsItemsWithoutTag
+                                : config.getFilterAcceptsItemsWithoutTag().get(),
+                        createReportConfig(project, view.reportFile, view.reportFormat,
+                                view.reportVerbosity, view.getName())))
+                .toList();
     }
 
-    private static Stream<File> getImportedRequirements(final Project project)
+    private static Set<String> toSet(final List<String> values)
     {
-        final String CONFIG_NAME = "oftRequirementConfig";
-        final Configuration configuration = project.getConfigurations().create(CONFIG_NAME);
-        getConfig(project).getImportedRequirements().get().forEach(dependency -> {
-            LOG.info("Adding dependency {} with configuration {} to project {}", dependency,
-                    CONFIG_NAME, project);
-            project.getDependencies().add(CONFIG_NAME, dependency);
-        });
-        final Set<File> files = configuration.getFiles();
-        LOG.info("Found {} dependency files: {}", files.size(), files);
-        return files.stream();
+        return values == null ? Set.of() : new LinkedHashSet<>(values);
+    }
+
+    /**
+     * Create a report configuration using the main report settings for
+     * missing values. The default file name contains the given name or else
+     * the format of the report.
+     */
+    private static SerializableReportConfig createReportConfig(final Project project,
+            final File file, final String format, final String verbosity, final String name)
+    {
+        final TracingConfig config = getConfig(project);
+        final String reportFormat = format != null ? format : config.getReportFormat().get();
+        final ReportVerbosity reportVerbosity = verbosity != null
+                ? ReportVerbosity.valueOf(verbosity.toUpperCase(Locale.ROOT))
+                : config.getReportVerbosity().get();
+        final File reportFile = file != null ? file
+                : getReportsFile(project,
+                        "tracing-" + (name != null ? name : reportFormat.toLowerCase(Locale.ROOT))
+                                + "." + getReportExtension(reportFormat));
+        return new SerializableReportConfig(reportFile, reportFormat, reportVerbosity);
+    }
+
+    private static String getReportExtension(final String reportFormat)
+    {
+        return "html".equals(reportFormat) ? "html" : "txt";
+    }
+
+    private static File getReportsFile(final Project project, final String fileName)
+    {
+        return new File(project.getLayout().getBuildDirectory().getAsFile().get(),
+                "reports/" + fileName);
     }
 
-    private static List<SerializableTagPathConfig> getPathConfig(final Set<Project> allProjects)
+    private static void createImportedRequirementsConfiguration(final Project project)
     {
-        return allProjects.stream() //
-                .map(OpenFastTracePlugin::getTagPathConfig) //
-                .filter(Optional::isPresent) //
-                .map(Optional::get) //
-                .collect(toList());
+        final Configuration configuration = project.getConfigurations()
+                .create(IMPORTED_REQUIREMENTS_CONFIG_NAME, config -> {
+                    config.setCanBeConsumed(false);
+                    config.setCanBeResolved(true);
+                });
+        registerRequirementsTransform(project);
+        final DependencyHandler dependencies = project.getDependencies();
+        configuration.getDependencies().addAllLater(getConfig(project).getImportedRequirements()
+                .map(notations -> notations.stream().map(dependencies::create).toList()));
+    }
+
+    /**
+     * Get the transformed artifacts of the imported requirements and all
+     * artifacts of other types unchanged. The view of the transformed
+     * artifacts is lenient, so that it skips artifacts without transform
+     * instead of failing. Errors resolving the dependencies are still reported
+     * by the view of the unchanged artifacts. Relocatable builds select the
+     * transform that does not keep the absolute paths of the artifacts.
+     */
+    private static FileCollection getImportedRequirements(final Project project)
+    {
+        final ResolvableDependencies incoming = project.getConfigurations()
+                .getByName(IMPORTED_REQUIREMENTS_CONFIG_NAME).getIncoming();
+        final FileCollection transformedArtifacts = incoming.artifactView(view -> {
+            view.lenient(true);
+            view.attributes(attributes -> attributes.attributeProvider(
+                    ArtifactTypeDefinition.ARTIFACT_TYPE_ATTRIBUTE,
+                    getConfig(project).getRelocatable().map(relocatable -> relocatable
+                            ? RelocatableRequirementsArtifactTransform.ARTIFACT_TYPE
+                            : RequirementsArtifactTransform.ARTIFACT_TYPE)));
+        }).getFiles();
+        final FileCollection untransformedArtifacts = incoming.getFiles()
+                .filter(new UntransformedArtifacts());
+        return project.files(transformedArtifacts, untransformedArtifacts);
+    }
+
+    private static void registerRequirementsTransform(final Project project)
+    {
+        for (final String artifactType : RequirementsArtifactTransform.SOURCE_ARTIFACT_TYPES)
+        {
+            registerRequirementsTransform(project, RequirementsArtifactTransform.class,
+                    artifactType, RequirementsArtifactTransform.ARTIFACT_TYPE);
+            registerRequirementsTransform(project, RelocatableRequirementsArtifactTransform.class,
+                    artifactType, RelocatableRequirementsArtifactTransform.ARTIFACT_TYPE);
+        }
+    }
+
+    private static void registerRequirementsTransform(final Project project,
+            final Class<? extends TransformAction<TransformParameters.None>> transform,
+            final String fromArtifactType, final String toArtifactType)
+    {
+        project.getDependencies().registerTransform(transform, spec -> {
+            spec.getFrom().attribute(ArtifactTypeDefinition.ARTIFACT_TYPE_ATTRIBUTE,
+                    fromArtifactType);
+            spec.getTo().attribute(ArtifactTypeDefinition.ARTIFACT_TYPE_ATTRIBUTE,
+                    toArtifactType);
+        });
     }
 
     private static Optional<SerializableTagPathConfig> getTagPathConfig(final Project project)
@@ -144,7 +505,8 @@ public class OpenFastTracePlugin implements Plugin<Project>
         {
             return Optional.empty();
         }
-        return Optional.of(new SerializableTagPathConfig(tagPathConfig));
+        return Optional.of(new SerializableTagPathConfig(tagPathConfig,
+                project.getIsolated().getRootProject().getProjectDirectory().getAsFile()));
     }
 
     private static TracingConfig getConfig(final Project project)
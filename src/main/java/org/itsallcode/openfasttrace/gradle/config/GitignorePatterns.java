@@ -0,0 +1,70 @@
+package org.itsallcode.openfasttrace.gradle.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts the content of a {@code .gitignore} file to Gradle exclude
+ * patterns.
+ * <p>
+ * Patterns containing a slash are relative to the directory of the
+ * {@code .gitignore} file, all others match at any depth. Ignored directories
+ * are excluded together with their content, so Gradle does not walk into them.
+ * Negated patterns ({@code !pattern}) can't be expressed as excludes and are
+ * ignored.
+ */
+public final class GitignorePatterns
+{
+    private GitignorePatterns()
+    {
+        // Not instantiable
+    }
+
+    /**
+     * Convert the given {@code .gitignore} content.
+     *
+     * @param content
+     *            content of a {@code .gitignore} file
+     * @return exclude patterns
+     */
+    public static List<String> toExcludePatterns(final String content)
+    {
+        final List<String> patterns = new ArrayList<>();
+        for (final String line : content.split("\\R"))
+        {
+            addExcludePatterns(patterns, line.stripTrailing());
+        }
+        return patterns;
+    }
+
+    private static void addExcludePatterns(final List<String> patterns, final String line)
+    {
+        if (line.isEmpty() || line.startsWith("#") || line.startsWith("!"))
+        {
+            return;
+        }
+        String pattern = line.startsWith("\\") ? line.substring(1) : line;
+        final boolean directoryOnly = pattern.endsWith("/");
+        if (directoryOnly)
+        {
+            pattern = pattern.substring(0, pattern.length() - 1);
+        }
+        if (pattern.isEmpty() || "/".equals(pattern))
+        {
+            return;
+        }
+        if (pattern.contains("/"))
+        {
+            pattern = pattern.startsWith("/") ? pattern.substring(1) : pattern;
+        }
+        else
+        {
+            pattern = "**/" + pattern;
+        }
+        if (!directoryOnly)
+        {
+            patterns.add(pattern);
+        }
+        patterns.add(pattern + "/**");
+    }
+}
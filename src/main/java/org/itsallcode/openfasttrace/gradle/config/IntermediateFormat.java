@@ -0,0 +1,34 @@
+package org.itsallcode.openfasttrace.gradle.config;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Format used to pass collected requirements to {@code traceRequirements}.
+ */
+public enum IntermediateFormat
+{
+    /** OpenFastTrace specobject XML. */
+    SPECOBJECT,
+    /** Compact binary format, see {@code BinaryRequirementsFormat}. */
+    BINARY;
+
+    /**
+     * Get the format with the given name ignoring case.
+     *
+     * @param name
+     *            name of the format
+     * @return the format
+     * @throws IllegalArgumentException
+     *             if there is no format with the given name
+     */
+    public static IntermediateFormat forName(final String name)
+    {
+        return Arrays.stream(values()) //
+                .filter(format -> format.name().equalsIgnoreCase(name)) //
+                .findFirst() //
+                .orElseThrow(() -> new IllegalArgumentException("Unknown intermediate format '"
+                        + name + "', supported formats are " + Arrays.stream(values())
+                                .map(format -> format.name().toLowerCase(Locale.ROOT)).toList()));
+    }
+}
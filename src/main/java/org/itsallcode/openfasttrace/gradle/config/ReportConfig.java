@@ -0,0 +1,24 @@
+package org.itsallcode.openfasttrace.gradle.config;
+
+import java.io.File;
+
+// Public fields are required for configuration via gradle
+@SuppressWarnings("squid:ClassVariableVisibilityCheck")
+public class ReportConfig
+{
+    public File file;
+    public String format;
+    public String verbosity;
+
+    ReportConfig()
+    {
+        // Created by ReportConfiguration
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ReportConfig [file=" + file + ", format=" + format + ", verbosity=" + verbosity
+                + "]";
+    }
+}
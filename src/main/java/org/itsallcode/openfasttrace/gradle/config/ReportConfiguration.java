@@ -0,0 +1,29 @@
+package org.itsallcode.openfasttrace.gradle.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.gradle.api.Action;
+
+public class ReportConfiguration
+{
+    private final List<ReportConfig> reportConfigs = new ArrayList<>();
+
+    public void report(final Action<ReportConfig> action)
+    {
+        final ReportConfig reportConfig = new ReportConfig();
+        action.execute(reportConfig);
+        reportConfigs.add(reportConfig);
+    }
+
+    public List<ReportConfig> getReports()
+    {
+        return reportConfigs;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ReportConfiguration [reportConfigs=" + reportConfigs + "]";
+    }
+}
@@ -1,6 +1,7 @@
 package org.itsallcode.openfasttrace.gradle.config;
 
 import java.util.List;
+import java.util.Locale;
 
 import org.gradle.api.Project;
 import org.gradle.api.file.ConfigurableFileCollection;
@@ -14,10 +15,14 @@ public class TracingConfig
 {
     private static final ReportVerbosity DEFAULT_REPORT_VERBOSITY = ReportVerbosity.FAILURE_DETAILS;
     private static final String DEFAULT_REPORT_FORMAT = "plain";
+    private static final String DEFAULT_ITEM_CACHE_SIZE = "0";
 
     private final Property<ReportVerbosity> reportVerbosity;
     private final Property<String> reportFormat;
     private final ConfigurableFileCollection inputDirectories;
+    private final ListProperty<String> inputIncludes;
+    private final ListProperty<String> inputExcludes;
+    private final Property<Boolean> respectGitignore;
     private final RegularFileProperty reportFile;
     private final ListProperty<Object> importedRequirements;
     private final SetProperty<String> filteredTags;
@@ -25,10 +30,22 @@ public class TracingConfig
     private final Property<Boolean> filterAcceptsItemsWithoutTag;
     private final Property<DetailsSectionDisplay> detailsSectionDisplay;
     private final Property<Boolean> failBuild;
+    private final Property<WorkerIsolation> workerIsolation;
+    private final Property<String> workerMaxHeapSize;
+    private final ListProperty<String> workerJvmArgs;
+    private final Property<IntermediateFormat> intermediateFormat;
+    private final Property<Boolean> streamingCollect;
+    private final Property<Boolean> relocatable;
+    private final Property<String> itemCacheSize;
+    private final Property<Boolean> normalizeInputs;
 
     public TracingConfig(final Project project)
     {
         this.inputDirectories = project.files();
+        this.inputIncludes = project.getObjects().listProperty(String.class);
+        this.inputExcludes = project.getObjects().listProperty(String.class);
+        this.respectGitignore = project.getObjects().property(Boolean.class);
+        this.respectGitignore.convention(false);
         this.reportFile = project.getObjects().fileProperty();
         this.reportVerbosity = project.getObjects().property(ReportVerbosity.class);
         this.reportVerbosity.set(DEFAULT_REPORT_VERBOSITY);
@@ -43,6 +60,20 @@ public class TracingConfig
         this.detailsSectionDisplay.set(DetailsSectionDisplay.COLLAPSE);
         this.failBuild = project.getObjects().property(Boolean.class);
         this.failBuild.set(true);
+        this.workerIsolation = project.getObjects().property(WorkerIsolation.class);
+        this.workerIsolation.convention(WorkerIsolation.NONE);
+        this.workerMaxHeapSize = project.getObjects().property(String.class);
+        this.workerJvmArgs = project.getObjects().listProperty(String.class);
+        this.intermediateFormat = project.getObjects().property(IntermediateFormat.class);
+        this.intermediateFormat.convention(IntermediateFormat.SPECOBJECT);
+        this.streamingCollect = project.getObjects().property(Boolean.class);
+        this.streamingCollect.convention(false);
+        this.relocatable = project.getObjects().property(Boolean.class);
+        this.relocatable.convention(false);
+        this.itemCacheSize = project.getObjects().property(String.class);
+        this.itemCacheSize.convention(DEFAULT_ITEM_CACHE_SIZE);
+        this.normalizeInputs = project.getObjects().property(Boolean.class);
+        this.normalizeInputs.convention(false);
     }
 
     public Property<ReportVerbosity> getReportVerbosity()
@@ -60,6 +91,21 @@ public class TracingConfig
         return inputDirectories;
     }
 
+    public ListProperty<String> getInputIncludes()
+    {
+        return inputIncludes;
+    }
+
+    public ListProperty<String> getInputExcludes()
+    {
+        return inputExcludes;
+    }
+
+    public Property<Boolean> getRespectGitignore()
+    {
+        return respectGitignore;
+    }
+
     public RegularFileProperty getReportFile()
     {
         return reportFile;
@@ -110,6 +156,21 @@ public class TracingConfig
         this.inputDirectories.setFrom(inputDirectories);
     }
 
+    public void setInputIncludes(final List<String> inputIncludes)
+    {
+        this.inputIncludes.set(inputIncludes);
+    }
+
+    public void setInputExcludes(final List<String> inputExcludes)
+    {
+        this.inputExcludes.set(inputExcludes);
+    }
+
+    public void setRespectGitignore(final boolean respectGitignore)
+    {
+        this.respectGitignore.set(respectGitignore);
+    }
+
     public void setReportFile(final RegularFileProperty reportFile)
     {
         this.reportFile.set(reportFile);
@@ -145,6 +206,16 @@ public class TracingConfig
         return ((ExtensionAware) this).getExtensions().getByType(TagPathConfiguration.class);
     }
 
+    public ReportConfiguration getReportConfig()
+    {
+        return ((ExtensionAware) this).getExtensions().getByType(ReportConfiguration.class);
+    }
+
+    public ViewConfiguration getViewConfig()
+    {
+        return ((ExtensionAware) this).getExtensions().getByType(ViewConfiguration.class);
+    }
+
     public Property<Boolean> getFailBuild()
     {
         return failBuild;
@@ -155,12 +226,101 @@ public class TracingConfig
         this.failBuild.set(failBuild);
     }
 
+    public Property<WorkerIsolation> getWorkerIsolation()
+    {
+        return workerIsolation;
+    }
+
+    public void setWorkerIsolation(final String workerIsolation)
+    {
+        this.workerIsolation.set(WorkerIsolation.valueOf(workerIsolation.toUpperCase(Locale.ROOT)));
+    }
+
+    public Property<String> getWorkerMaxHeapSize()
+    {
+        return workerMaxHeapSize;
+    }
+
+    public void setWorkerMaxHeapSize(final String workerMaxHeapSize)
+    {
+        this.workerMaxHeapSize.set(workerMaxHeapSize);
+    }
+
+    public ListProperty<String> getWorkerJvmArgs()
+    {
+        return workerJvmArgs;
+    }
+
+    public void setWorkerJvmArgs(final List<String> workerJvmArgs)
+    {
+        this.workerJvmArgs.set(workerJvmArgs);
+    }
+
+    public Property<IntermediateFormat> getIntermediateFormat()
+    {
+        return intermediateFormat;
+    }
+
+    public void setIntermediateFormat(final String intermediateFormat)
+    {
+        this.intermediateFormat.set(IntermediateFormat.forName(intermediateFormat));
+    }
+
+    public Property<Boolean> getStreamingCollect()
+    {
+        return streamingCollect;
+    }
+
+    public void setStreamingCollect(final boolean streamingCollect)
+    {
+        this.streamingCollect.set(streamingCollect);
+    }
+
+    public Property<Boolean> getRelocatable()
+    {
+        return relocatable;
+    }
+
+    public void setRelocatable(final boolean relocatable)
+    {
+        this.relocatable.set(relocatable);
+    }
+
+    public Property<String> getItemCacheSize()
+    {
+        return itemCacheSize;
+    }
+
+    public void setItemCacheSize(final String itemCacheSize)
+    {
+        this.itemCacheSize.set(itemCacheSize);
+    }
+
+    public Property<Boolean> getNormalizeInputs()
+    {
+        return normalizeInputs;
+    }
+
+    public void setNormalizeInputs(final boolean normalizeInputs)
+    {
+        this.normalizeInputs.set(normalizeInputs);
+    }
+
     @Override
     public String toString()
     {
         return "TracingConfig [reportVerbosity=" + reportVerbosity + ", inputDirectories="
-                + inputDirectories + ", reportFile=" + reportFile + ", pathConfig="
-                + getTagPathConfig() + ", failBuild=" + failBuild + ", filteredArtifactTypes="
-                + filteredArtifactTypes + "]";
+                + inputDirectories + ", inputIncludes=" + inputIncludes + ", inputExcludes="
+                + inputExcludes + ", respectGitignore=" + respectGitignore
+                + ", reportFile=" + reportFile + ", pathConfig="
+                + getTagPathConfig() + ", reports=" + getReportConfig() + ", views="
+                + getViewConfig() + ", failBuild="
+                + failBuild + ", filteredArtifactTypes=" + filteredArtifactTypes
+                + ", workerIsolation=" + workerIsolation
+                + ", workerMaxHeapSize=" + workerMaxHeapSize + ", workerJvmArgs=" + workerJvmArgs
+                + ", intermediateFormat=" + intermediateFormat + ", streamingCollect="
+                + streamingCollect + ", relocatable=" + relocatable
+                + ", itemCacheSize=" + itemCacheSize + ", normalizeInputs=" + normalizeInputs
+                + "]";
     }
 }
@@ -0,0 +1,37 @@
+package org.itsallcode.openfasttrace.gradle.config;
+
+import java.io.File;
+import java.util.List;
+
+// Public fields are required for configuration via gradle
+@SuppressWarnings("squid:ClassVariableVisibilityCheck")
+public class ViewConfig
+{
+    private final String name;
+
+    public List<String> filteredArtifactTypes;
+    public List<String> filteredTags;
+    public Boolean filterAcceptsItemsWithoutTag;
+    public File reportFile;
+    public String reportFormat;
+    public String reportVerbosity;
+
+    ViewConfig(final String name)
+    {
+        this.name = name;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ViewConfig [name=" + name + ", filteredArtifactTypes=" + filteredArtifactTypes
+                + ", filteredTags=" + filteredTags + ", filterAcceptsItemsWithoutTag="
+                + filterAcceptsItemsWithoutTag + ", reportFile=" + reportFile + ", reportFormat="
+                + reportFormat + ", reportVerbosity=" + reportVerbosity + "]";
+    }
+}
@@ -0,0 +1,29 @@
+package org.itsallcode.openfasttrace.gradle.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.gradle.api.Action;
+
+public class ViewConfiguration
+{
+    private final List<ViewConfig> viewConfigs = new ArrayList<>();
+
+    public void view(final String name, final Action<ViewConfig> action)
+    {
+        final ViewConfig viewConfig = new ViewConfig(name);
+        action.execute(viewConfig);
+        viewConfigs.add(viewConfig);
+    }
+
+    public List<ViewConfig> getViews()
+    {
+        return viewConfigs;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ViewConfiguration [viewConfigs=" + viewConfigs + "]";
+    }
+}
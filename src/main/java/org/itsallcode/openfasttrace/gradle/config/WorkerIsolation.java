@@ -0,0 +1,14 @@
+package org.itsallcode.openfasttrace.gradle.config;
+
+/**
+ * Isolation mode used for running OpenFastTrace in Gradle workers.
+ */
+public enum WorkerIsolation
+{
+    /** Run in the Gradle daemon using the plugin's class loader. */
+    NONE,
+    /** Run in the Gradle daemon using an isolated class loader. */
+    CLASSLOADER,
+    /** Run in a separate worker process with its own heap. */
+    PROCESS
+}
@@ -0,0 +1,86 @@
+package org.itsallcode.openfasttrace.gradle.service;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.itsallcode.openfasttrace.api.importer.ImporterFactory;
+import org.itsallcode.openfasttrace.core.Oft;
+import org.itsallcode.openfasttrace.core.OftRunner;
+import org.itsallcode.openfasttrace.gradle.task.cache.ParsedItemCache;
+import org.itsallcode.openfasttrace.gradle.task.importer.ImporterFactoryTypes;
+import org.slf4j.Logger;
+
+/**
+ * Shares one OpenFastTrace engine and the discovered importer plugins between
+ * all tasks of a build that run OpenFastTrace in the Gradle daemon.
+ * <p>
+ * Gradle creates the service when the first task uses it and closes it at the
+ * end of the build. The classes of the engine stay loaded and JIT compiled as
+ * long as the daemon reuses the plugin's class loader, so a new service is
+ * cheap to create. Only the cache of parsed items is kept between builds. Its
+ * memory budget is set once by each service instance from the service
+ * parameters, so all tasks of a build use the same budget.
+ */
+public abstract class OftEngineService implements BuildService<OftEngineService.Parameters>
+{
+    /**
+     * Name under which the service is registered.
+     */
+    public static final String NAME = "openFastTraceEngine";
+
+    private static final Logger LOG = Logging.getLogger(OftEngineService.class);
+    private static final ParsedItemCache ITEM_CACHE = new ParsedItemCache(0);
+
+    private final Oft oft = new OftRunner();
+    private final ImporterFactoryTypes importerFactoryTypes = ImporterFactoryTypes.load();
+    private final long itemCacheMaxBytes;
+
+    public interface Parameters extends BuildServiceParameters
+    {
+        /**
+         * @return memory budget of the daemon-wide cache of parsed items, e.g.
+         *         {@code 128m}, {@code 0} disables the cache
+         */
+        Property<String> getItemCacheSize();
+    }
+
+    @SuppressWarnings("this-escape")
+    protected OftEngineService()
+    {
+        this.itemCacheMaxBytes = ParsedItemCache
+                .parseSize(getParameters().getItemCacheSize().getOrElse("0"));
+        ITEM_CACHE.setMaxBytes(itemCacheMaxBytes);
+        LOG.info("Created shared OpenFastTrace engine with {} importer plugins, "
+                + "parsed item cache budget {} bytes", importerFactoryTypes.size(),
+                itemCacheMaxBytes);
+    }
+
+    public Oft getOft()
+    {
+        return oft;
+    }
+
+    /**
+     * Get the daemon-wide cache of parsed items.
+     *
+     * @return the cache or an empty {@link Optional} if the cache is disabled
+     */
+    public Optional<ParsedItemCache> getItemCache()
+    {
+        return itemCacheMaxBytes > 0 ? Optional.of(ITEM_CACHE) : Optional.empty();
+    }
+
+    /**
+     * Create new instances of all importer factories.
+     *
+     * @return new importer factories
+     */
+    public List<ImporterFactory> createImporterFactories()
+    {
+        return importerFactoryTypes.createFactories();
+    }
+}
@@ -0,0 +1,155 @@
+package org.itsallcode.openfasttrace.gradle.task;
+
+import javax.inject.Inject;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.Directory;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
+import org.gradle.workers.WorkQueue;
+import org.gradle.workers.WorkerExecutor;
+import org.itsallcode.openfasttrace.gradle.config.WorkerIsolation;
+import org.itsallcode.openfasttrace.gradle.service.OftEngineService;
+
+/**
+ * Base class for tasks that run OpenFastTrace in a Gradle worker.
+ */
+@SuppressWarnings("this-escape")
+public abstract class AbstractOftTask extends DefaultTask
+{
+    private final Property<WorkerIsolation> workerIsolation = getProject().getObjects()
+            .property(WorkerIsolation.class);
+    private final Property<String> workerMaxHeapSize = getProject().getObjects()
+            .property(String.class);
+    private final ListProperty<String> workerJvmArgs = getProject().getObjects()
+            .listProperty(String.class);
+    private final Property<Boolean> relocatable = getProject().getObjects()
+            .property(Boolean.class);
+    private final DirectoryProperty rootDirectory = getProject().getObjects()
+            .directoryProperty();
+    private final Property<OftEngineService> engineService = getProject().getObjects()
+            .property(OftEngineService.class);
+    private final RegularFileProperty metricsFile = getProject().getObjects().fileProperty();
+
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
+    @Internal
+    public Property<WorkerIsolation> getWorkerIsolation()
+    {
+        return workerIsolation;
+    }
+
+    @Internal
+    public Property<String> getWorkerMaxHeapSize()
+    {
+        return workerMaxHeapSize;
+    }
+
+    @Internal
+    public ListProperty<String> getWorkerJvmArgs()
+    {
+        return workerJvmArgs;
+    }
+
+    /**
+     * Write origins relative to the root directory so that outputs can be
+     * reused from the build cache by checkouts at a different location.
+     *
+     * @return {@code true} for relocatable outputs
+     */
+    @Input
+    public Property<Boolean> getRelocatable()
+    {
+        return relocatable;
+    }
+
+    @Internal
+    public DirectoryProperty getRootDirectory()
+    {
+        return rootDirectory;
+    }
+
+    @Internal
+    public Property<OftEngineService> getEngineService()
+    {
+        return engineService;
+    }
+
+    /**
+     * JSON file with timing and resource metrics. It is written each time the
+     * task is executed and not restored from the build cache, so it is not an
+     * output of the task.
+     *
+     * @return the metrics file
+     */
+    @Internal
+    public RegularFileProperty getMetricsFile()
+    {
+        return metricsFile;
+    }
+
+    /**
+     * The shared engine can only be used by workers running in the Gradle
+     * daemon.
+     *
+     * @return the engine service or no value for isolated workers
+     */
+    protected Provider<OftEngineService> getEngineServiceForWorker()
+    {
+        return workerIsolation.zip(engineService, (isolation, service) -> isolation
+                == WorkerIsolation.NONE ? service : null);
+    }
+
+    /**
+     * Input files are fingerprinted with relative paths. Unless outputs are
+     * relocatable they contain absolute paths, so the location of the root
+     * directory must be part of the cache key.
+     *
+     * @return absolute path of the root directory or an empty string for
+     *         relocatable outputs
+     */
+    @Input
+    public Provider<String> getAbsoluteRootDirectory()
+    {
+        return relocatable.zip(rootDirectory, (isRelocatable, directory) -> isRelocatable
+                ? ""
+                : directory.getAsFile().getAbsolutePath());
+    }
+
+    /**
+     * @return the root directory if outputs are relocatable, else no value
+     */
+    protected Provider<Directory> getOriginBaseDirectory()
+    {
+        return rootDirectory.zip(relocatable,
+                (directory, isRelocatable) -> isRelocatable ? directory : null);
+    }
+
+    protected WorkQueue createWorkQueue()
+    {
+        final WorkerIsolation isolation = workerIsolation.getOrElse(WorkerIsolation.NONE);
+        getLogger().info("Running OpenFastTrace with worker isolation {}", isolation);
+        switch (isolation)
+        {
+        case PROCESS:
+            return getWorkerExecutor().processIsolation(spec -> spec.forkOptions(options -> {
+                if (workerMaxHeapSize.isPresent())
+                {
+                    options.setMaxHeapSize(workerMaxHeapSize.get());
+                }
+                options.jvmArgs(workerJvmArgs.get());
+            }));
+        case CLASSLOADER:
+            return getWorkerExecutor().classLoaderIsolation();
+        case NONE:
+        default:
+            return getWorkerExecutor().noIsolation();
+        }
+    }
+}
@@ -1,26 +1,27 @@
 package org.itsallcode.openfasttrace.gradle.task;
 
-import static java.util.stream.Collectors.joining;
-
 import java.io.File;
-import java.nio.file.Path;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.Set;
+import java.util.TreeSet;
 
-import org.gradle.api.DefaultTask;
-import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.file.*;
 import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
 import org.gradle.api.provider.SetProperty;
 import org.gradle.api.tasks.*;
-import org.itsallcode.openfasttrace.api.core.Newline;
-import org.itsallcode.openfasttrace.api.core.SpecificationItem;
-import org.itsallcode.openfasttrace.api.importer.ImportSettings;
-import org.itsallcode.openfasttrace.api.importer.tag.config.PathConfig;
-import org.itsallcode.openfasttrace.core.*;
+import org.gradle.work.*;
+import org.itsallcode.openfasttrace.gradle.task.cache.ImportCache;
+import org.itsallcode.openfasttrace.gradle.task.cache.InputManifest;
 import org.itsallcode.openfasttrace.gradle.task.config.SerializableTagPathConfig;
+import org.itsallcode.openfasttrace.gradle.task.metrics.TaskMetrics;
+import org.itsallcode.openfasttrace.gradle.task.worker.CollectRequirementsAction;
 
 @CacheableTask
-public class CollectTask extends DefaultTask
+public abstract class CollectTask extends AbstractOftTask
 {
     // Possible 'this' escape before subclass is fully initialized
     @SuppressWarnings("this-escape")
@@ -31,88 +32,338 @@ public class CollectTask extends DefaultTask
     @SuppressWarnings({ "this-escape" })
     public final ListProperty<SerializableTagPathConfig> pathConfig = getProject().getObjects()
             .listProperty(SerializableTagPathConfig.class);
+    @SuppressWarnings("this-escape")
+    public final ConfigurableFileCollection requirementFragments = getProject().getObjects()
+            .fileCollection();
+    @SuppressWarnings("this-escape")
+    public final RegularFileProperty binaryOutputFile = getProject().getObjects().fileProperty();
+    @SuppressWarnings("this-escape")
+    public final RegularFileProperty importCacheFile = getProject().getObjects().fileProperty();
+    @SuppressWarnings("this-escape")
+    public final Property<Boolean> streaming = getProject().getObjects().property(Boolean.class);
+    @SuppressWarnings("this-escape")
+    private final Property<Integer> importParallelism = getProject().getObjects()
+            .property(Integer.class);
+    @SuppressWarnings("this-escape")
+    private final ConfigurableFileCollection inputFiles = getProject().getObjects()
+            .fileCollection().from(inputDirectories);
+    @SuppressWarnings("this-escape")
+    private final ConfigurableFileCollection tagPathFiles = getProject().getObjects()
+            .fileCollection();
+    @SuppressWarnings("this-escape")
+    private final RegularFileProperty normalizedInputsFile = getProject().getObjects()
+            .fileProperty();
+    @SuppressWarnings("this-escape")
+    private final RegularFileProperty collectedInputsFile = getProject().getObjects()
+            .fileProperty();
 
-    @InputFiles
-    @PathSensitive(PathSensitivity.ABSOLUTE)
+    @Internal
     public SetProperty<File> getInputDirectories()
     {
         return inputDirectories;
     }
 
+    /**
+     * Files imported from the input directories. Defaults to the complete
+     * input directories, the plugin restricts them to the configured include
+     * and exclude patterns.
+     *
+     * @return input files
+     */
+    @InputFiles
+    @Incremental
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public ConfigurableFileCollection getInputFiles()
+    {
+        return inputFiles;
+    }
+
+    /**
+     * Files configured as paths of the tag importer. The file trees are only
+     * walked when the task runs.
+     *
+     * @return tag path files
+     */
+    @InputFiles
+    @Incremental
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public ConfigurableFileCollection getTagPathFiles()
+    {
+        return tagPathFiles;
+    }
+
+    /**
+     * Manifest written by {@link NormalizeTask} with digests of the
+     * requirement-relevant content of the input files. If present, the input
+     * and tag path files are not inputs of this task, files are imported
+     * according to the manifest instead.
+     *
+     * @return the manifest file
+     */
+    @InputFile
+    @Optional
+    @Incremental
+    @PathSensitive(PathSensitivity.NONE)
+    public RegularFileProperty getNormalizedInputsFile()
+    {
+        return normalizedInputsFile;
+    }
+
+    /**
+     * Copy of the manifest of the last import, used to find the files that
+     * changed since then.
+     *
+     * @return the copy of the manifest
+     */
+    @LocalState
+    public RegularFileProperty getCollectedInputsFile()
+    {
+        return collectedInputsFile;
+    }
+
+    /**
+     * Specobject files collected by the tasks of other projects that are
+     * merged into the output of this task.
+     *
+     * @return requirement fragments
+     */
+    @InputFiles
+    @Incremental
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public ConfigurableFileCollection getRequirementFragments()
+    {
+        return requirementFragments;
+    }
+
     @OutputFile
     public RegularFileProperty getOutputFile()
     {
         return outputFile;
     }
 
+    /**
+     * Optional file in the compact binary format that is faster to read than
+     * the specobject output file.
+     *
+     * @return binary output file
+     */
+    @OutputFile
+    @Optional
+    public RegularFileProperty getBinaryOutputFile()
+    {
+        return binaryOutputFile;
+    }
+
     @Input
     public ListProperty<SerializableTagPathConfig> getPathConfig()
     {
         return pathConfig;
     }
 
+    @OutputFile
+    public RegularFileProperty getImportCacheFile()
+    {
+        return importCacheFile;
+    }
+
+    /**
+     * Write items to the output files as soon as they are imported. Peak heap
+     * usage then depends on the biggest input files instead of the number of
+     * all items.
+     *
+     * @return {@code true} to stream items
+     */
+    @Input
+    public Property<Boolean> getStreaming()
+    {
+        return streaming;
+    }
+
+    /**
+     * Maximum number of threads used for importing files, usually Gradle's
+     * {@code --max-workers}.
+     *
+     * @return import parallelism
+     */
+    @Internal
+    public Property<Integer> getImportParallelism()
+    {
+        return importParallelism;
+    }
+
     @TaskAction
-    public void collectRequirements()
+    public void collectRequirements(final InputChanges inputChanges)
     {
         createReportOutputDir();
 
-        final Oft oft = new OftRunner();
-        final ImportSettings settings = getImportSettings();
-        getLogger().info("Importing from {} locations {} and {} path configurations: {}",
-                settings.getInputs().size(), settings.getInputs(), settings.getPathConfigs().size(),
-                settings.getPathConfigs());
-        final List<SpecificationItem> importedItems = oft.importItems(settings);
-        final Path output = getOuputFileInternal().toPath();
-        getLogger().info("Imported {} spec items, writing to {}", importedItems.size(), output);
-        oft.exportToPath(importedItems, output, getExportSettings());
+        final Set<File> filesToImport = new TreeSet<>();
+        final Set<File> removedFiles = new TreeSet<>();
+        final long discoveryStartWall = System.nanoTime();
+        final long discoveryStartCpu = TaskMetrics.getCurrentThreadCpuTime();
+        final boolean incremental = inputChanges.isIncremental()
+                && ImportCache.isCompatible(importCacheFile.getAsFile().get().toPath())
+                && collectChangedFiles(inputChanges, filesToImport, removedFiles);
+        if (!incremental)
+        {
+            filesToImport.clear();
+            removedFiles.clear();
+            collectAllImportFiles(filesToImport);
+        }
+        removeAliases(filesToImport);
+        final long discoveryWall = System.nanoTime() - discoveryStartWall;
+        final long discoveryCpu = TaskMetrics.getCurrentThreadCpuTime() - discoveryStartCpu;
+        createWorkQueue().submit(CollectRequirementsAction.class, parameters -> {
+            parameters.getIncremental().set(incremental);
+            parameters.getFilesToImport().from(filesToImport);
+            parameters.getRemovedFiles().from(removedFiles);
+            parameters.getRequirementFragments().from(requirementFragments);
+            parameters.getPathConfig().set(pathConfig);
+            parameters.getRootDirectory().set(getRootDirectory());
+            parameters.getImportCacheFile().set(importCacheFile);
+            parameters.getOutputFile().set(outputFile);
+            parameters.getBinaryOutputFile().set(binaryOutputFile);
+            parameters.getStreaming().set(streaming);
+            parameters.getOriginBaseDirectory().set(getOriginBaseDirectory());
+            parameters.getEngineService().set(getEngineServiceForWorker());
+            parameters.getImportParallelism().set(importParallelism);
+            parameters.getMetricsFile().set(getMetricsFile());
+            parameters.getFileDiscoveryWallNanos().set(discoveryWall);
+            parameters.getFileDiscoveryCpuNanos().set(discoveryCpu);
+            parameters.getNormalizedInputsFile().set(normalizedInputsFile);
+            parameters.getCollectedInputsFile().set(collectedInputsFile);
+        });
     }
 
-    private static ExportSettings getExportSettings()
+    /**
+     * Collect the files changed since the last run.
+     *
+     * @return {@code false} if files were removed from the inputs that still
+     *         exist, e.g. after changing the input configuration. Other paths
+     *         to the same files may still be inputs, so all files must be
+     *         imported again.
+     */
+    private boolean collectChangedFiles(final InputChanges inputChanges,
+            final Set<File> changedFiles, final Set<File> removedFiles)
     {
-        return ExportSettings.builder() //
-                .outputFormat("specobject") //
-                .newline(Newline.UNIX) //
-                .build();
+        for (final FileCollection files : List.of(inputFiles, tagPathFiles, requirementFragments))
+        {
+            for (final FileChange change : inputChanges.getFileChanges(files))
+            {
+                if (change.getFileType() == FileType.DIRECTORY)
+                {
+                    continue;
+                }
+                if (change.getChangeType() == ChangeType.REMOVED)
+                {
+                    removedFiles.add(change.getFile());
+                }
+                else
+                {
+                    changedFiles.add(change.getFile());
+                }
+            }
+        }
+        if (normalizedInputsFile.isPresent()
+                && !collectChangedNormalizedFiles(changedFiles, removedFiles))
+        {
+            getLogger().info("No manifest of the last import found, importing all files");
+            return false;
+        }
+        getLogger().info("Found {} added or modified and {} removed files since last run",
+                changedFiles.size(), removedFiles.size());
+        if (removedFiles.stream().anyMatch(File::exists))
+        {
+            getLogger().info("Existing files were removed from the inputs, importing all files");
+            return false;
+        }
+        return true;
     }
 
-    private ImportSettings getImportSettings()
+    private boolean collectChangedNormalizedFiles(final Set<File> changedFiles,
+            final Set<File> removedFiles)
     {
-        return ImportSettings.builder() //
-                .addInputs(getAllImportFiles()) //
-                .pathConfigs(getPathConfigInternal()) //
-                .build();
+        final InputManifest previous = InputManifest
+                .read(collectedInputsFile.getAsFile().get().toPath()).orElse(null);
+        if (previous == null)
+        {
+            return false;
+        }
+        final InputManifest current = readNormalizedInputs();
+        for (final String path : current.getPaths())
+        {
+            if (!current.getDigest(path).equals(previous.getDigest(path)))
+            {
+                changedFiles.add(resolveManifestPath(path));
+            }
+        }
+        for (final String path : previous.getPaths())
+        {
+            if (current.getDigest(path) == null)
+            {
+                removedFiles.add(resolveManifestPath(path));
+            }
+        }
+        return true;
     }
 
-    private List<Path> getAllImportFiles()
+    private InputManifest readNormalizedInputs()
     {
-        final Stream<Path> inputDirPaths = inputDirectories.get().stream() //
-                .map(File::toPath);
-        getLogger().info("Importing from {} input directories: {}", inputDirectories.get().size(),
-                inputDirectories.get());
-        final Stream<Path> inputTagPaths = pathConfig.get().stream()
-                .flatMap(SerializableTagPathConfig::getPaths);
-        getLogger().info("Importing from {} configured paths: {}", pathConfig.get().size(),
-                pathConfig.get());
-        return Stream.concat(inputDirPaths, inputTagPaths).toList();
+        final File manifest = normalizedInputsFile.getAsFile().get();
+        return InputManifest.read(manifest.toPath()).orElseThrow(
+                () -> new IllegalStateException("Input manifest " + manifest + " not found"));
+    }
+
+    private File resolveManifestPath(final String path)
+    {
+        return getRootDirectory().getAsFile().get().toPath().resolve(path).normalize().toFile();
     }
 
-    private List<PathConfig> getPathConfigInternal()
+    /**
+     * Remove all but one path of files that are reachable via several paths,
+     * e.g. through overlapping input directories and tag paths or symbolic
+     * links, so that each file is read and imported once. The first path in
+     * sorted order is kept, so incremental and full imports use the same path.
+     */
+    private void removeAliases(final Set<File> files)
     {
-        final List<PathConfig> paths = pathConfig.get().stream()
-                .flatMap(SerializableTagPathConfig::getPathConfig).toList();
-        if (getLogger().isInfoEnabled())
+        final Set<File> canonicalFiles = new HashSet<>();
+        final int fileCount = files.size();
+        files.removeIf(file -> !canonicalFiles.add(getCanonicalFile(file)));
+        if (files.size() < fileCount)
         {
-            getLogger().info("Got {} path configurations:\n{}", paths.size(),
-                    paths.stream().map(CollectTask::formatPathConfig).collect(joining("\n")));
+            getLogger().info("Skipped {} files that are reachable via several paths",
+                    fileCount - files.size());
         }
-        return paths;
     }
 
-    private static String formatPathConfig(final PathConfig config)
+    private static File getCanonicalFile(final File file)
     {
-        return " - " + config.getDescription() + " (type " + config.getTagArtifactType()
-                + "): covers '" + config.getCoveredItemArtifactType() + "', prefix: '"
-                + config.getCoveredItemNamePrefix() + "'";
+        try
+        {
+            return file.getCanonicalFile();
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException("Error resolving canonical path of " + file, e);
+        }
+    }
+
+    private void collectAllImportFiles(final Set<File> files)
+    {
+        getLogger().info("Importing from {} input directories: {}", inputDirectories.get().size(),
+                inputDirectories.get());
+        getLogger().info("Importing from {} configured paths: {}", pathConfig.get().size(),
+                pathConfig.get());
+        getLogger().info("Merging {} requirement fragments: {}",
+                requirementFragments.getFiles().size(), requirementFragments.getFiles());
+        files.addAll(inputFiles.getAsFileTree().getFiles());
+        if (normalizedInputsFile.isPresent())
+        {
+            readNormalizedInputs().getPaths().stream().map(this::resolveManifestPath)
+                    .forEach(files::add);
+        }
+        files.addAll(tagPathFiles.getAsFileTree().getFiles());
+        files.addAll(requirementFragments.getAsFileTree().getFiles());
     }
 
     private void createReportOutputDir()
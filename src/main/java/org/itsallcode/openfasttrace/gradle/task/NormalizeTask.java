@@ -0,0 +1,160 @@
+package org.itsallcode.openfasttrace.gradle.task;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.*;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.*;
+import org.gradle.work.*;
+import org.itsallcode.openfasttrace.gradle.task.cache.InputManifest;
+import org.itsallcode.openfasttrace.gradle.task.importer.RequirementContent;
+
+/**
+ * Writes an {@link InputManifest} with digests of the requirement-relevant
+ * content of the input files, so that {@link CollectTask} only runs when
+ * requirements or tags changed.
+ * <p>
+ * Paths in the manifest are relative to the root directory. The input files
+ * are fingerprinted with absolute paths, so moving inputs changes the
+ * manifest.
+ */
+public abstract class NormalizeTask extends DefaultTask
+{
+    // Possible 'this' escape before subclass is fully initialized
+    @SuppressWarnings("this-escape")
+    private final ConfigurableFileCollection sourceFiles = getProject().getObjects()
+            .fileCollection();
+    @SuppressWarnings("this-escape")
+    private final DirectoryProperty rootDirectory = getProject().getObjects()
+            .directoryProperty();
+    @SuppressWarnings("this-escape")
+    private final RegularFileProperty manifestFile = getProject().getObjects().fileProperty();
+    @SuppressWarnings("this-escape")
+    private final Property<Integer> importParallelism = getProject().getObjects()
+            .property(Integer.class).convention(1);
+
+    @InputFiles
+    @Incremental
+    @PathSensitive(PathSensitivity.ABSOLUTE)
+    public ConfigurableFileCollection getSourceFiles()
+    {
+        return sourceFiles;
+    }
+
+    @Internal
+    public DirectoryProperty getRootDirectory()
+    {
+        return rootDirectory;
+    }
+
+    @OutputFile
+    public RegularFileProperty getManifestFile()
+    {
+        return manifestFile;
+    }
+
+    /**
+     * Maximum number of threads used for hashing changed files, usually
+     * Gradle's {@code --max-workers}.
+     *
+     * @return import parallelism
+     */
+    @Internal
+    public Property<Integer> getImportParallelism()
+    {
+        return importParallelism;
+    }
+
+    @TaskAction
+    public void normalize(final InputChanges inputChanges)
+    {
+        final Path manifestPath = manifestFile.getAsFile().get().toPath();
+        final InputManifest manifest = inputChanges.isIncremental()
+                ? InputManifest.read(manifestPath).orElseGet(InputManifest::empty)
+                : InputManifest.empty();
+        final Set<File> changedFiles = new HashSet<>();
+        for (final FileChange change : inputChanges.getFileChanges(sourceFiles))
+        {
+            if (change.getFileType() == FileType.DIRECTORY)
+            {
+                continue;
+            }
+            if (change.getChangeType() == ChangeType.REMOVED)
+            {
+                manifest.remove(toManifestPath(change.getFile()));
+            }
+            else
+            {
+                changedFiles.add(change.getFile());
+            }
+        }
+        digest(changedFiles).forEach(manifest::put);
+        getLogger().info("Normalized {} changed input files, manifest contains {} files",
+                changedFiles.size(), manifest.getPaths().size());
+        manifest.write(manifestPath);
+    }
+
+    private Map<String, String> digest(final Set<File> files)
+    {
+        final int parallelism = Math.max(1, Math.min(importParallelism.get(), files.size()));
+        if (parallelism == 1)
+        {
+            final Map<String, String> digests = new HashMap<>();
+            files.forEach(file -> digests.put(toManifestPath(file),
+                    RequirementContent.digest(file.toPath())));
+            return digests;
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try
+        {
+            final Map<String, Future<String>> futures = new HashMap<>();
+            for (final File file : files)
+            {
+                futures.put(toManifestPath(file),
+                        executor.submit(() -> RequirementContent.digest(file.toPath())));
+            }
+            final Map<String, String> digests = new HashMap<>();
+            for (final Map.Entry<String, Future<String>> entry : futures.entrySet())
+            {
+                digests.put(entry.getKey(), getDigest(entry.getValue()));
+            }
+            return digests;
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String getDigest(final Future<String> future)
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while normalizing input files", e);
+        }
+        catch (final ExecutionException e)
+        {
+            if (e.getCause() instanceof final RuntimeException runtimeException)
+            {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Error normalizing input files", e.getCause());
+        }
+    }
+
+    private String toManifestPath(final File file)
+    {
+        return rootDirectory.getAsFile().get().toPath().toAbsolutePath().normalize()
+                .relativize(file.toPath().toAbsolutePath().normalize()).toString()
+                .replace(File.separatorChar, '/');
+    }
+}
@@ -1,28 +1,27 @@
 package org.itsallcode.openfasttrace.gradle.task;
 
-import static java.util.Collections.emptySet;
 import static java.util.stream.Collectors.toList;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
-import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.RegularFileProperty;
-import org.gradle.api.provider.Property;
-import org.gradle.api.provider.SetProperty;
+import org.gradle.api.provider.*;
 import org.gradle.api.tasks.*;
-import org.itsallcode.openfasttrace.api.*;
-import org.itsallcode.openfasttrace.api.core.*;
-import org.itsallcode.openfasttrace.api.importer.ImportSettings;
+import org.itsallcode.openfasttrace.api.DetailsSectionDisplay;
 import org.itsallcode.openfasttrace.api.report.ReportVerbosity;
-import org.itsallcode.openfasttrace.core.Oft;
-import org.itsallcode.openfasttrace.core.OftRunner;
+import org.itsallcode.openfasttrace.gradle.task.config.SerializableReportConfig;
+import org.itsallcode.openfasttrace.gradle.task.config.SerializableViewConfig;
+import org.itsallcode.openfasttrace.gradle.task.worker.TraceRequirementsAction;
 
 @SuppressWarnings("this-escape")
 @CacheableTask
-public class TraceTask extends DefaultTask
+public abstract class TraceTask extends AbstractOftTask
 {
     private final RegularFileProperty requirementsFile = getProject().getObjects().fileProperty();
     private final RegularFileProperty outputFile = getProject().getObjects().fileProperty();
@@ -31,8 +30,8 @@ public class TraceTask extends DefaultTask
     private final Property<String> reportFormat = getProject().getObjects().property(String.class);
     private final Property<DetailsSectionDisplay> detailsSectionDisplay = getProject().getObjects()
             .property(DetailsSectionDisplay.class);
-    private final SetProperty<File> importedRequirements = getProject().getObjects()
-            .setProperty(File.class);
+    private final ConfigurableFileCollection importedRequirements = getProject().getObjects()
+            .fileCollection();
     private final SetProperty<String> filteredArtifactTypes = getProject().getObjects()
             .setProperty(String.class);
     private final SetProperty<String> filteredTags = getProject().getObjects()
@@ -40,9 +39,15 @@ public class TraceTask extends DefaultTask
     private final Property<Boolean> filterAcceptsItemsWithoutTag = getProject().getObjects()
             .property(Boolean.class);
     private final Property<Boolean> failBuild = getProject().getObjects().property(Boolean.class);
+    private final ListProperty<SerializableReportConfig> additionalReports = getProject()
+            .getObjects().listProperty(SerializableReportConfig.class);
+    private final ListProperty<SerializableViewConfig> views = getProject().getObjects()
+            .listProperty(SerializableViewConfig.class);
+    private final Property<Integer> reportParallelism = getProject().getObjects()
+            .property(Integer.class);
 
     @InputFile
-    @PathSensitive(PathSensitivity.ABSOLUTE)
+    @PathSensitive(PathSensitivity.RELATIVE)
     public RegularFileProperty getRequirementsFile()
     {
         return requirementsFile;
@@ -66,8 +71,9 @@ public class TraceTask extends DefaultTask
         return reportFormat;
     }
 
-    @Input
-    public SetProperty<File> getImportedRequirements()
+    @InputFiles
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public ConfigurableFileCollection getImportedRequirements()
     {
         return importedRequirements;
     }
@@ -103,86 +109,109 @@ public class TraceTask extends DefaultTask
         return failBuild;
     }
 
-    private boolean shouldFailBuild()
+    /**
+     * @return additional reports rendered from the same trace as the main
+     *         report
+     */
+    @Internal
+    public ListProperty<SerializableReportConfig> getAdditionalReports()
     {
-        return failBuild.getOrElse(true);
+        return additionalReports;
     }
 
-    @TaskAction
-    public void trace()
+    @Input
+    public Provider<List<String>> getAdditionalReportSettings()
     {
-        createReportOutputDir();
-        final Oft oft = new OftRunner();
-        final ImportSettings importSettings = getImportSettings();
-        final List<SpecificationItem> importedItems = oft.importItems(importSettings);
-        getLogger().info("Read {} spec items from {}", importedItems.size(),
-                importSettings.getInputs());
-        final List<LinkedSpecificationItem> linkedItems = oft.link(importedItems);
-        final Trace trace = oft.trace(linkedItems);
-        final Path reportPath = getOutputFileInternal().toPath();
-        getLogger().info("Tracing result: {} total items, {} defects. Writing report to {}",
-                trace.count(), trace.countDefects(), reportPath);
-        oft.reportToPath(trace, reportPath, getReportSettings());
-        if (trace.countDefects() > 0)
-        {
-            final String message = "Requirement tracing found " + trace.countDefects()
-                    + " defects. See report at " + reportPath + " for details.";
-            if (shouldFailBuild())
-            {
-                throw new IllegalStateException(message);
-            }
-            getLogger().warn(message);
-        }
-        else
+        return additionalReports.map(reports -> reports.stream()
+                .map(report -> report.getFormat() + ":" + report.getVerbosity()).toList());
+    }
+
+    @OutputFiles
+    public Map<String, File> getAdditionalReportFiles()
+    {
+        final List<SerializableReportConfig> reports = additionalReports.get();
+        final Map<String, File> files = new LinkedHashMap<>();
+        for (int i = 0; i < reports.size(); i++)
         {
-            getLogger().info("Requirement tracing completed successfully.");
+            files.put("report" + i, reports.get(i).getFile());
         }
+        return files;
     }
 
-    private ReportSettings getReportSettings()
+    /**
+     * @return views traced from the same imported items with their own
+     *         filter and report
+     */
+    @Internal
+    public ListProperty<SerializableViewConfig> getViews()
     {
-        getLogger().info("Report settings: verbosity={}, format={}, detailsSectionDisplay={}",
-                reportVerbosity.get(), reportFormat.get(), detailsSectionDisplay.get());
-        return ReportSettings.builder() //
-                .verbosity(reportVerbosity.get()) //
-                .outputFormat(reportFormat.get()) //
-                .showOrigin(true) //
-                .newline(Newline.UNIX) //
-                .detailsSectionDisplay(detailsSectionDisplay.get()) //
-                .build();
+        return views;
     }
 
-    private ImportSettings getImportSettings()
+    @Input
+    public Provider<List<String>> getViewSettings()
     {
-        return ImportSettings.builder() //
-                .addInputs(getAllImportFiles()) //
-                .filter(getFilterSettings()) //
-                .build();
+        return views.map(configs -> configs.stream()
+                .map(view -> view.getName() + ":" + view.getArtifactTypes() + ":"
+                        + view.getTags() + ":" + view.isAcceptItemsWithoutTag() + ":"
+                        + view.getReport().getFormat() + ":" + view.getReport().getVerbosity())
+                .toList());
     }
 
-    private FilterSettings getFilterSettings()
+    @OutputFiles
+    public Map<String, File> getViewReportFiles()
+    {
+        final Map<String, File> files = new LinkedHashMap<>();
+        views.get().forEach(view -> files.put("view-" + view.getName(),
+                view.getReport().getFile()));
+        return files;
+    }
+
+    /**
+     * @return maximum number of reports and views processed concurrently
+     */
+    @Internal
+    public Property<Integer> getReportParallelism()
+    {
+        return reportParallelism;
+    }
+
+    @TaskAction
+    public void trace()
     {
-        final FilterSettings settings = FilterSettings.builder() //
-                .artifactTypes(filteredArtifactTypes.getOrElse(emptySet())) //
-                .tags(filteredTags.get()) //
-                .withoutTags(filterAcceptsItemsWithoutTag.get()).build();
-        getLogger().info("Filter settings: artifactTypes={}, tags={}, acceptItemsWithoutTag={}",
-                settings.getArtifactTypes(), settings.getTags(),
-                settings.isArtifactTypeCriteriaSet());
-        return settings;
+        createReportOutputDir(getOutputFileInternal());
+        additionalReports.get().forEach(report -> createReportOutputDir(report.getFile()));
+        views.get().forEach(view -> createReportOutputDir(view.getReport().getFile()));
+        createWorkQueue().submit(TraceRequirementsAction.class, parameters -> {
+            parameters.getImportFiles().from(getAllImportFiles());
+            parameters.getOutputFile().set(outputFile);
+            parameters.getReportVerbosity().set(reportVerbosity);
+            parameters.getReportFormat().set(reportFormat);
+            parameters.getDetailsSectionDisplay().set(detailsSectionDisplay);
+            parameters.getFilteredArtifactTypes().set(filteredArtifactTypes);
+            parameters.getFilteredTags().set(filteredTags);
+            parameters.getFilterAcceptsItemsWithoutTag().set(filterAcceptsItemsWithoutTag);
+            parameters.getFailBuild().set(failBuild);
+            parameters.getAdditionalReports().set(additionalReports);
+            parameters.getReportParallelism().set(reportParallelism);
+            parameters.getViews().set(views);
+            parameters.getMetricsFile().set(getMetricsFile());
+            parameters.getOriginBaseDirectory().set(getOriginBaseDirectory());
+            parameters.getEngineService().set(getEngineServiceForWorker());
+        });
     }
 
     private List<Path> getAllImportFiles()
     {
-        final Stream<Path> importedRequirementPaths = importedRequirements.get().stream()
+        final Stream<Path> importedRequirementPaths = importedRequirements.getFiles().stream()
                 .map(File::toPath);
         final Stream<Path> inputDirPaths = Stream.of(requirementsFile.getAsFile().get().toPath());
         return Stream.concat(importedRequirementPaths, inputDirPaths).collect(toList());
     }
 
-    private void createReportOutputDir()
+    private static void createReportOutputDir(final File outputFile)
     {
-        final File outputDir = getOutputFileInternal().getParentFile();
+        final File outputDir = outputFile.getParentFile();
         if (outputDir.exists())
         {
             return;
@@ -0,0 +1,350 @@
+package org.itsallcode.openfasttrace.gradle.task.cache;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import org.itsallcode.openfasttrace.api.core.*;
+
+/**
+ * Compact binary file format for handing over collected requirements between
+ * tasks.
+ * <p>
+ * Artifact types, tags, origins and status values repeat for many items. They
+ * are stored once in a string table at the beginning of the file and items
+ * refer to them by index. All numbers are written as variable length integers.
+ */
+public final class BinaryRequirementsFormat
+{
+    /**
+     * File name extension of binary requirements files.
+     */
+    public static final String FILE_EXTENSION = ".oftbin";
+
+    private static final int MAGIC = 0x4f465442;
+    private static final int FORMAT_VERSION = 1;
+    private static final int NULL_INDEX = 0;
+
+    private BinaryRequirementsFormat()
+    {
+        // Not instantiable
+    }
+
+    /**
+     * Check if the given file is a binary requirements file. The plugin writes
+     * binary files only with {@link #FILE_EXTENSION}, so the check uses the
+     * file name and does not open the file.
+     *
+     * @param file
+     *            the file to check
+     * @return {@code true} if the file is a binary requirements file
+     */
+    public static boolean isBinaryFile(final Path file)
+    {
+        final Path fileName = file.getFileName();
+        return fileName != null && fileName.toString().endsWith(FILE_EXTENSION);
+    }
+
+    public static void write(final Path file, final List<SpecificationItem> items)
+    {
+        try (Writer writer = Writer.create(file))
+        {
+            writer.write(items);
+        }
+    }
+
+    public static List<SpecificationItem> read(final Path file)
+    {
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file))))
+        {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION)
+            {
+                throw new IllegalStateException(
+                        "File " + file + " is not a supported binary requirements file");
+            }
+            final String[] strings = readStringTable(input);
+            final int itemCount = readVarInt(input);
+            final List<SpecificationItem> items = new ArrayList<>(itemCount);
+            for (int i = 0; i < itemCount; i++)
+            {
+                items.add(readItem(input, strings));
+            }
+            return items;
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException("Error reading requirements from " + file, e);
+        }
+    }
+
+    private static void writeItem(final DataOutput output, final StringTable strings,
+            final SpecificationItem item) throws IOException
+    {
+        writeId(output, strings, item.getId());
+        writeNullableString(output, item.getTitle());
+        writeNullableString(output, item.getDescription());
+        writeNullableString(output, item.getRationale());
+        writeNullableString(output, item.getComment());
+        final Location location = item.getLocation();
+        writeVarInt(output, strings.indexOf(location == null ? null : location.getPath()));
+        writeVarInt(output, location == null ? 0 : location.getLine());
+        writeVarInt(output,
+                strings.indexOf(item.getStatus() == null ? null : item.getStatus().name()));
+        output.writeBoolean(item.isForwarding());
+        writeVarInt(output, item.getNeedsArtifactTypes().size());
+        for (final String artifactType : item.getNeedsArtifactTypes())
+        {
+            writeVarInt(output, strings.indexOf(artifactType));
+        }
+        writeIds(output, strings, item.getCoveredIds());
+        writeIds(output, strings, item.getDependOnIds());
+        writeVarInt(output, item.getTags().size());
+        for (final String tag : item.getTags())
+        {
+            writeVarInt(output, strings.indexOf(tag));
+        }
+    }
+
+    private static SpecificationItem readItem(final DataInput input, final String[] strings)
+            throws IOException
+    {
+        final SpecificationItem.Builder builder = SpecificationItem.builder()
+                .id(readId(input, strings));
+        final String title = readNullableString(input);
+        if (title != null)
+        {
+            builder.title(title);
+        }
+        final String description = readNullableString(input);
+        if (description != null)
+        {
+            builder.description(description);
+        }
+        final String rationale = readNullableString(input);
+        if (rationale != null)
+        {
+            builder.rationale(rationale);
+        }
+        final String comment = readNullableString(input);
+        if (comment != null)
+        {
+            builder.comment(comment);
+        }
+        final String locationPath = strings[readVarInt(input)];
+        final int line = readVarInt(input);
+        if (locationPath != null)
+        {
+            builder.location(Location.create(locationPath, line));
+        }
+        final String status = strings[readVarInt(input)];
+        if (status != null)
+        {
+            builder.status(ItemStatus.valueOf(status));
+        }
+        builder.forwards(input.readBoolean());
+        final int needsCount = readVarInt(input);
+        for (int i = 0; i < needsCount; i++)
+        {
+            builder.addNeedsArtifactType(strings[readVarInt(input)]);
+        }
+        final int coveredCount = readVarInt(input);
+        for (int i = 0; i < coveredCount; i++)
+        {
+            builder.addCoveredId(readId(input, strings));
+        }
+        final int dependOnCount = readVarInt(input);
+        for (int i = 0; i < dependOnCount; i++)
+        {
+            builder.addDependOnId(readId(input, strings));
+        }
+        final int tagCount = readVarInt(input);
+        for (int i = 0; i < tagCount; i++)
+        {
+            builder.addTag(strings[readVarInt(input)]);
+        }
+        return builder.build();
+    }
+
+    private static void writeId(final DataOutput output, final StringTable strings,
+            final SpecificationItemId id) throws IOException
+    {
+        writeVarInt(output, strings.indexOf(id.getArtifactType()));
+        SpecificationItemCodec.writeString(output, id.getName());
+        writeVarInt(output, id.getRevision());
+    }
+
+    private static SpecificationItemId readId(final DataInput input, final String[] strings)
+            throws IOException
+    {
+        final String artifactType = strings[readVarInt(input)];
+        final String name = SpecificationItemCodec.readString(input);
+        final int revision = readVarInt(input);
+        return SpecificationItemId.createId(artifactType, name, revision);
+    }
+
+    private static void writeIds(final DataOutput output, final StringTable strings,
+            final List<SpecificationItemId> ids) throws IOException
+    {
+        writeVarInt(output, ids.size());
+        for (final SpecificationItemId id : ids)
+        {
+            writeId(output, strings, id);
+        }
+    }
+
+    private static void writeNullableString(final DataOutput output, final String value)
+            throws IOException
+    {
+        output.writeBoolean(value != null);
+        if (value != null)
+        {
+            SpecificationItemCodec.writeString(output, value);
+        }
+    }
+
+    private static String readNullableString(final DataInput input) throws IOException
+    {
+        return input.readBoolean() ? SpecificationItemCodec.readString(input) : null;
+    }
+
+    private static String[] readStringTable(final DataInput input) throws IOException
+    {
+        final int size = readVarInt(input);
+        final String[] strings = new String[size + 1];
+        strings[NULL_INDEX] = null;
+        for (int i = 1; i <= size; i++)
+        {
+            strings[i] = SpecificationItemCodec.readString(input);
+        }
+        return strings;
+    }
+
+    // Negative values need five bytes but don't occur for revisions, line
+    // numbers and sizes
+    private static void writeVarInt(final DataOutput output, final int value) throws IOException
+    {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0)
+        {
+            output.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        output.writeByte(remaining);
+    }
+
+    private static int readVarInt(final DataInput input) throws IOException
+    {
+        int value = 0;
+        int shift = 0;
+        byte current;
+        do
+        {
+            current = input.readByte();
+            value |= (current & 0x7F) << shift;
+            shift += 7;
+        }
+        while ((current & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Writes items to a binary requirements file in multiple steps.
+     * <p>
+     * The string table is only known after all items were written, so items
+     * are first written to a temporary file next to the target file and copied
+     * behind the string table when the writer is closed.
+     */
+    public static final class Writer implements Closeable
+    {
+        private final Path file;
+        private final Path itemsFile;
+        private final DataOutputStream itemsOutput;
+        private final StringTable strings = new StringTable();
+        private int itemCount = 0;
+
+        private Writer(final Path file, final Path itemsFile, final DataOutputStream itemsOutput)
+        {
+            this.file = file;
+            this.itemsFile = itemsFile;
+            this.itemsOutput = itemsOutput;
+        }
+
+        public static Writer create(final Path file)
+        {
+            final Path itemsFile = file.resolveSibling(file.getFileName() + ".items");
+            try
+            {
+                return new Writer(file, itemsFile, new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(itemsFile))));
+            }
+            catch (final IOException e)
+            {
+                throw new UncheckedIOException("Error writing requirements to " + itemsFile, e);
+            }
+        }
+
+        public void write(final List<SpecificationItem> items)
+        {
+            try
+            {
+                for (final SpecificationItem item : items)
+                {
+                    writeItem(itemsOutput, strings, item);
+                }
+                itemCount += items.size();
+            }
+            catch (final IOException e)
+            {
+                throw new UncheckedIOException("Error writing requirements to " + itemsFile, e);
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            try
+            {
+                itemsOutput.close();
+                try (DataOutputStream output = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(file))))
+                {
+                    output.writeInt(MAGIC);
+                    output.writeInt(FORMAT_VERSION);
+                    strings.write(output);
+                    writeVarInt(output, itemCount);
+                    Files.copy(itemsFile, output);
+                }
+                Files.delete(itemsFile);
+            }
+            catch (final IOException e)
+            {
+                throw new UncheckedIOException("Error writing requirements to " + file, e);
+            }
+        }
+    }
+
+    private static class StringTable
+    {
+        private final Map<String, Integer> indexByString = new LinkedHashMap<>();
+
+        int indexOf(final String value)
+        {
+            if (value == null)
+            {
+                return NULL_INDEX;
+            }
+            return indexByString.computeIfAbsent(value, key -> indexByString.size() + 1);
+        }
+
+        void write(final DataOutput output) throws IOException
+        {
+            writeVarInt(output, indexByString.size());
+            for (final String value : indexByString.keySet())
+            {
+                SpecificationItemCodec.writeString(output, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package org.itsallcode.openfasttrace.gradle.task.cache;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import org.gradle.api.logging.Logging;
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.slf4j.Logger;
+
+/**
+ * Persistent cache of the specification items imported from each input file.
+ * <p>
+ * The cache file contains one entry per file, sorted by path. Entries can be
+ * read and written one by one with {@link EntryReader} and {@link EntryWriter}
+ * without loading the whole cache into memory.
+ */
+public class ImportCache
+{
+    private static final Logger LOG = Logging.getLogger(ImportCache.class);
+    private static final int MAGIC = 0x4f465443;
+    private static final int FORMAT_VERSION = 2;
+
+    private final SortedMap<String, List<SpecificationItem>> itemsByFile;
+
+    private ImportCache(final SortedMap<String, List<SpecificationItem>> itemsByFile)
+    {
+        this.itemsByFile = itemsByFile;
+    }
+
+    public static ImportCache empty()
+    {
+        return new ImportCache(new TreeMap<>());
+    }
+
+    /**
+     * Check if the given file exists and was written in the format supported
+     * by this class.
+     *
+     * @param cacheFile
+     *            the cache file
+     * @return {@code true} if the file can be read with
+     *         {@link #read(Path)}
+     */
+    public static boolean isCompatible(final Path cacheFile)
+    {
+        if (!Files.isRegularFile(cacheFile))
+        {
+            return false;
+        }
+        try (DataInputStream input = new DataInputStream(Files.newInputStream(cacheFile)))
+        {
+            return input.readInt() == MAGIC && input.readInt() == FORMAT_VERSION;
+        }
+        catch (final IOException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Read the cache from the given file.
+     *
+     * @param cacheFile
+     *            the cache file
+     * @return the cache or an empty {@link Optional} if the file does not exist
+     *         or was written by an incompatible version
+     */
+    public static Optional<ImportCache> read(final Path cacheFile)
+    {
+        if (!Files.isRegularFile(cacheFile))
+        {
+            return Optional.empty();
+        }
+        try (EntryReader reader = EntryReader.open(cacheFile))
+        {
+            final SortedMap<String, List<SpecificationItem>> itemsByFile = new TreeMap<>();
+            Map.Entry<String, List<SpecificationItem>> entry;
+            while ((entry = reader.read()) != null)
+            {
+                itemsByFile.put(entry.getKey(), entry.getValue());
+            }
+            return Optional.of(new ImportCache(itemsByFile));
+        }
+        catch (final IllegalStateException e)
+        {
+            LOG.info("Ignoring import cache {} with unsupported format", cacheFile);
+            return Optional.empty();
+        }
+        catch (final UncheckedIOException e)
+        {
+            LOG.warn("Error reading import cache {}, ignoring it: {}", cacheFile, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void write(final Path cacheFile)
+    {
+        try (EntryWriter writer = EntryWriter.create(cacheFile))
+        {
+            for (final Map.Entry<String, List<SpecificationItem>> entry : itemsByFile.entrySet())
+            {
+                writer.write(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Add or replace the items of an imported file.
+     *
+     * @param file
+     *            the path of the imported file as written to the cache
+     * @param items
+     *            the imported items
+     */
+    public void put(final String file, final List<SpecificationItem> items)
+    {
+        itemsByFile.put(file, items);
+    }
+
+    public void remove(final String file)
+    {
+        itemsByFile.remove(file);
+    }
+
+    public int getFileCount()
+    {
+        return itemsByFile.size();
+    }
+
+    /**
+     * @return the items of each file, sorted by path
+     */
+    public SortedMap<String, List<SpecificationItem>> getItemsByFile()
+    {
+        return Collections.unmodifiableSortedMap(itemsByFile);
+    }
+
+    /**
+     * Reads the entries of a cache file one by one in the order they were
+     * written.
+     */
+    public static final class EntryReader implements Closeable
+    {
+        private final Path cacheFile;
+        private final DataInputStream input;
+
+        private EntryReader(final Path cacheFile, final DataInputStream input)
+        {
+            this.cacheFile = cacheFile;
+            this.input = input;
+        }
+
+        /**
+         * Open the given cache file.
+         *
+         * @param cacheFile
+         *            the cache file
+         * @return a new reader
+         * @throws IllegalStateException
+         *             if the file was written in an unsupported format
+         */
+        public static EntryReader open(final Path cacheFile)
+        {
+            try
+            {
+                final DataInputStream input = new DataInputStream(
+                        new BufferedInputStream(Files.newInputStream(cacheFile)));
+                if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION)
+                {
+                    input.close();
+                    throw new IllegalStateException(
+                            "Import cache " + cacheFile + " has an unsupported format");
+                }
+                return new EntryReader(cacheFile, input);
+            }
+            catch (final IOException e)
+            {
+                throw new UncheckedIOException("Error reading import cache " + cacheFile, e);
+            }
+        }
+
+        /**
+         * Read the next entry.
+         *
+         * @return the path of the imported file and its items or {@code null}
+         *         at the end of the file
+         */
+        public Map.Entry<String, List<SpecificationItem>> read()
+        {
+            try
+            {
+                if (!input.readBoolean())
+                {
+                    return null;
+                }
+                final String file = SpecificationItemCodec.readString(input);
+                final int itemCount = input.readInt();
+                final List<SpecificationItem> items = new ArrayList<>(itemCount);
+                for (int i = 0; i < itemCount; i++)
+                {
+                    items.add(SpecificationItemCodec.read(input));
+                }
+                return Map.entry(file, items);
+            }
+            catch (final IOException e)
+            {
+                throw new UncheckedIOException("Error reading import cache " + cacheFile, e);
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            try
+            {
+                input.close();
+            }
+            catch (final IOException e)
+            {
+                throw new UncheckedIOException("Error closing import cache " + cacheFile, e);
+            }
+        }
+    }
+
+    /**
+     * Writes the entries of a cache file one by one. Entries must be written
+     * sorted by path.
+     */
+    public static final class EntryWriter implements Closeable
+    {
+        private final Path cacheFile;
+        private final DataOutputStream output;
+
+        private EntryWriter(final Path cacheFile, final DataOutputStream output)
+        {
+            this.cacheFile = cacheFile;
+            this.output = output;
+        }
+
+        public static EntryWriter create(final Path cacheFile)
+        {
+            try
+            {
+                final DataOutputStream output = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(cacheFile)));
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                return new EntryWriter(cacheFile, output);
+            }
+            catch (final IOException e)
+            {
+                throw new UncheckedIOException("Error writing import cache " + cacheFile, e);
+            }
+        }
+
+        public void write(final String file, final List<SpecificationItem> items)
+        {
+            try
+            {
+                output.writeBoolean(true);
+                SpecificationItemCodec.writeString(output, file);
+                output.writeInt(items.size());
+                for (final SpecificationItem item : items)
+                {
+                    SpecificationItemCodec.write(output, item);
+                }
+            }
+            catch (final IOException e)
+            {
+                throw new UncheckedIOException("Error writing import cache " + cacheFile, e);
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            try (output)
+            {
+                output.writeBoolean(false);
+            }
+            catch (final IOException e)
+            {
+                throw new UncheckedIOException("Error writing import cache " + cacheFile, e);
+            }
+        }
+    }
+}
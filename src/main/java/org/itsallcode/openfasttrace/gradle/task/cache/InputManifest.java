@@ -0,0 +1,99 @@
+package org.itsallcode.openfasttrace.gradle.task.cache;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Digests of the requirement-relevant content of input files, see
+ * {@link org.itsallcode.openfasttrace.gradle.task.importer.RequirementContent}.
+ * <p>
+ * The manifest is a text file with one line per input file containing the
+ * digest and the path separated by a tab, sorted by path.
+ */
+public class InputManifest
+{
+    private final SortedMap<String, String> digestsByPath;
+
+    private InputManifest(final SortedMap<String, String> digestsByPath)
+    {
+        this.digestsByPath = digestsByPath;
+    }
+
+    public static InputManifest empty()
+    {
+        return new InputManifest(new TreeMap<>());
+    }
+
+    /**
+     * Read the given manifest file.
+     *
+     * @param file
+     *            the manifest file
+     * @return the manifest or an empty {@link Optional} if the file does not
+     *         exist
+     */
+    public static Optional<InputManifest> read(final Path file)
+    {
+        if (!Files.isRegularFile(file))
+        {
+            return Optional.empty();
+        }
+        final SortedMap<String, String> digestsByPath = new TreeMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                final int separator = line.indexOf('\t');
+                if (separator < 0)
+                {
+                    throw new IllegalStateException("Invalid line '" + line + "' in " + file);
+                }
+                digestsByPath.put(line.substring(separator + 1), line.substring(0, separator));
+            }
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException("Error reading input manifest " + file, e);
+        }
+        return Optional.of(new InputManifest(digestsByPath));
+    }
+
+    public void put(final String path, final String digest)
+    {
+        digestsByPath.put(path, digest);
+    }
+
+    public void remove(final String path)
+    {
+        digestsByPath.remove(path);
+    }
+
+    public Set<String> getPaths()
+    {
+        return Collections.unmodifiableSet(digestsByPath.keySet());
+    }
+
+    public String getDigest(final String path)
+    {
+        return digestsByPath.get(path);
+    }
+
+    public void write(final Path file)
+    {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8))
+        {
+            for (final Map.Entry<String, String> entry : digestsByPath.entrySet())
+            {
+                writer.write(entry.getValue() + "\t" + entry.getKey() + "\n");
+            }
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException("Error writing input manifest " + file, e);
+        }
+    }
+}
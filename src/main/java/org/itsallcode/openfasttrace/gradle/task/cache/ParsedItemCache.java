@@ -0,0 +1,144 @@
+package org.itsallcode.openfasttrace.gradle.task.cache;
+
+import java.lang.ref.SoftReference;
+import java.util.*;
+
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+
+/**
+ * In-memory least recently used cache of the items parsed from files.
+ * <p>
+ * The size of the cache is limited by an estimate of the memory used by the
+ * cached items. Items are only softly referenced, so the garbage collector can
+ * evict them when the heap runs low.
+ */
+public final class ParsedItemCache
+{
+    private static final long ITEM_OVERHEAD_BYTES = 256;
+    private static final long STRING_OVERHEAD_BYTES = 40;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long maxBytes;
+    private long usedBytes = 0;
+
+    public ParsedItemCache(final long maxBytes)
+    {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Parse a memory size like {@code 512k}, {@code 128m} or {@code 1g}.
+     *
+     * @param size
+     *            the size to parse
+     * @return the size in bytes
+     */
+    public static long parseSize(final String size)
+    {
+        final String value = size.trim().toLowerCase(Locale.ROOT);
+        final long factor = switch (value.isEmpty() ? ' ' : value.charAt(value.length() - 1))
+        {
+        case 'k' -> 1024L;
+        case 'm' -> 1024L * 1024;
+        case 'g' -> 1024L * 1024 * 1024;
+        default -> 1L;
+        };
+        final String number = factor == 1 ? value : value.substring(0, value.length() - 1);
+        try
+        {
+            return Long.parseLong(number) * factor;
+        }
+        catch (final NumberFormatException e)
+        {
+            throw new IllegalArgumentException("Invalid memory size '" + size + "'", e);
+        }
+    }
+
+    /**
+     * @return estimated memory used by the cached items in bytes
+     */
+    public synchronized long getUsedBytes()
+    {
+        return usedBytes;
+    }
+
+    public synchronized void setMaxBytes(final long maxBytes)
+    {
+        this.maxBytes = maxBytes;
+        evict();
+    }
+
+    /**
+     * Get the cached items.
+     *
+     * @param key
+     *            the key of the parsed file
+     * @return the cached items or an empty {@link Optional} if they are not
+     *         cached or were collected by the garbage collector
+     */
+    public synchronized Optional<List<SpecificationItem>> get(final String key)
+    {
+        final Entry entry = entries.get(key);
+        if (entry == null)
+        {
+            return Optional.empty();
+        }
+        final List<SpecificationItem> items = entry.items.get();
+        if (items == null)
+        {
+            entries.remove(key);
+            usedBytes -= entry.size;
+        }
+        return Optional.ofNullable(items);
+    }
+
+    public synchronized void put(final String key, final List<SpecificationItem> items)
+    {
+        final long size = estimateSize(items);
+        if (size > maxBytes)
+        {
+            return;
+        }
+        final Entry previous = entries.put(key, new Entry(new SoftReference<>(items), size));
+        if (previous != null)
+        {
+            usedBytes -= previous.size;
+        }
+        usedBytes += size;
+        evict();
+    }
+
+    private void evict()
+    {
+        final Iterator<Entry> iterator = entries.values().iterator();
+        while (usedBytes > maxBytes && iterator.hasNext())
+        {
+            usedBytes -= iterator.next().size;
+            iterator.remove();
+        }
+    }
+
+    private static long estimateSize(final List<SpecificationItem> items)
+    {
+        long size = 0;
+        for (final SpecificationItem item : items)
+        {
+            size += ITEM_OVERHEAD_BYTES + estimateSize(item.getId().getName())
+                    + estimateSize(item.getTitle()) + estimateSize(item.getDescription())
+                    + estimateSize(item.getRationale()) + estimateSize(item.getComment())
+                    + (item.getCoveredIds().size() + item.getDependOnIds().size()
+                            + item.getNeedsArtifactTypes().size() + item.getTags().size())
+                            * STRING_OVERHEAD_BYTES;
+        }
+        return size;
+    }
+
+    private static long estimateSize(final String value)
+    {
+        return value == null ? 0 : STRING_OVERHEAD_BYTES + value.length();
+    }
+
+    private record Entry(SoftReference<List<SpecificationItem>> items, long size)
+    {
+    }
+}
@@ -0,0 +1,181 @@
+package org.itsallcode.openfasttrace.gradle.task.cache;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.itsallcode.openfasttrace.api.core.*;
+
+/**
+ * Binary encoding of {@link SpecificationItem}s used for the files the plugin
+ * keeps between task executions.
+ */
+public final class SpecificationItemCodec
+{
+    private SpecificationItemCodec()
+    {
+        // Not instantiable
+    }
+
+    public static void write(final DataOutput output, final SpecificationItem item)
+            throws IOException
+    {
+        writeId(output, item.getId());
+        writeNullableString(output, item.getTitle());
+        writeNullableString(output, item.getDescription());
+        writeNullableString(output, item.getRationale());
+        writeNullableString(output, item.getComment());
+        writeLocation(output, item.getLocation());
+        writeNullableString(output, item.getStatus() == null ? null : item.getStatus().name());
+        output.writeBoolean(item.isForwarding());
+        writeStrings(output, item.getNeedsArtifactTypes());
+        writeIds(output, item.getCoveredIds());
+        writeIds(output, item.getDependOnIds());
+        writeStrings(output, item.getTags());
+    }
+
+    public static SpecificationItem read(final DataInput input) throws IOException
+    {
+        final SpecificationItem.Builder builder = SpecificationItem.builder().id(readId(input));
+        final String title = readNullableString(input);
+        if (title != null)
+        {
+            builder.title(title);
+        }
+        final String description = readNullableString(input);
+        if (description != null)
+        {
+            builder.description(description);
+        }
+        final String rationale = readNullableString(input);
+        if (rationale != null)
+        {
+            builder.rationale(rationale);
+        }
+        final String comment = readNullableString(input);
+        if (comment != null)
+        {
+            builder.comment(comment);
+        }
+        final Location location = readLocation(input);
+        if (location != null)
+        {
+            builder.location(location);
+        }
+        final String status = readNullableString(input);
+        if (status != null)
+        {
+            builder.status(ItemStatus.valueOf(status));
+        }
+        builder.forwards(input.readBoolean());
+        final int needsCount = input.readInt();
+        for (int i = 0; i < needsCount; i++)
+        {
+            builder.addNeedsArtifactType(readString(input));
+        }
+        final int coveredCount = input.readInt();
+        for (int i = 0; i < coveredCount; i++)
+        {
+            builder.addCoveredId(readId(input));
+        }
+        final int dependOnCount = input.readInt();
+        for (int i = 0; i < dependOnCount; i++)
+        {
+            builder.addDependOnId(readId(input));
+        }
+        final int tagCount = input.readInt();
+        for (int i = 0; i < tagCount; i++)
+        {
+            builder.addTag(readString(input));
+        }
+        return builder.build();
+    }
+
+    private static void writeId(final DataOutput output, final SpecificationItemId id)
+            throws IOException
+    {
+        writeString(output, id.getArtifactType());
+        writeString(output, id.getName());
+        output.writeInt(id.getRevision());
+    }
+
+    private static SpecificationItemId readId(final DataInput input) throws IOException
+    {
+        final String artifactType = readString(input);
+        final String name = readString(input);
+        final int revision = input.readInt();
+        return SpecificationItemId.createId(artifactType, name, revision);
+    }
+
+    private static void writeIds(final DataOutput output, final List<SpecificationItemId> ids)
+            throws IOException
+    {
+        output.writeInt(ids.size());
+        for (final SpecificationItemId id : ids)
+        {
+            writeId(output, id);
+        }
+    }
+
+    private static void writeLocation(final DataOutput output, final Location location)
+            throws IOException
+    {
+        output.writeBoolean(location != null);
+        if (location != null)
+        {
+            writeString(output, location.getPath());
+            output.writeInt(location.getLine());
+        }
+    }
+
+    private static Location readLocation(final DataInput input) throws IOException
+    {
+        if (!input.readBoolean())
+        {
+            return null;
+        }
+        final String path = readString(input);
+        final int line = input.readInt();
+        return Location.create(path, line);
+    }
+
+    private static void writeStrings(final DataOutput output, final List<String> values)
+            throws IOException
+    {
+        output.writeInt(values.size());
+        for (final String value : values)
+        {
+            writeString(output, value);
+        }
+    }
+
+    private static void writeNullableString(final DataOutput output, final String value)
+            throws IOException
+    {
+        output.writeBoolean(value != null);
+        if (value != null)
+        {
+            writeString(output, value);
+        }
+    }
+
+    private static String readNullableString(final DataInput input) throws IOException
+    {
+        return input.readBoolean() ? readString(input) : null;
+    }
+
+    // DataOutput.writeUTF() is limited to 64k bytes, descriptions may be longer
+    static void writeString(final DataOutput output, final String value) throws IOException
+    {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    static String readString(final DataInput input) throws IOException
+    {
+        final byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
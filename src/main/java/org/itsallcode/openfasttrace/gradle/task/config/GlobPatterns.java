@@ -0,0 +1,93 @@
+package org.itsallcode.openfasttrace.gradle.task.config;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Converts the include patterns of a Gradle file tree to a single glob as
+ * accepted by {@link java.nio.file.FileSystem#getPathMatcher(String)}.
+ * <p>
+ * In Gradle's patterns {@code **}{@code /} also matches no directory at all,
+ * while in a glob it matches at least one directory. Globs don't support
+ * nested groups, so each such pattern is expanded to all alternatives with and
+ * without the directories.
+ */
+final class GlobPatterns
+{
+    private static final String ANY_DIRECTORIES = "**/";
+    private static final String SPECIAL_CHARACTERS = "\\{}[],";
+
+    private GlobPatterns()
+    {
+        // Not instantiable
+    }
+
+    /**
+     * Create a glob matching the files below the base directory that match
+     * one of the given patterns.
+     *
+     * @param baseDirectory
+     *            base directory of the file tree
+     * @param includes
+     *            Ant-style include patterns, all files are included if empty
+     * @return the glob without {@code glob:} prefix
+     */
+    static String toGlob(final File baseDirectory, final Collection<String> includes)
+    {
+        final String base = escape(
+                baseDirectory.getAbsolutePath().replace(File.separatorChar, '/'));
+        final Set<String> alternatives = new LinkedHashSet<>();
+        for (final String include : includes.isEmpty() ? List.of("**") : includes)
+        {
+            expand(normalize(include), alternatives);
+        }
+        final StringJoiner glob = new StringJoiner(",", alternatives.size() > 1 ? "{" : "",
+                alternatives.size() > 1 ? "}" : "");
+        alternatives.forEach(pattern -> glob.add(base + "/" + pattern));
+        return glob.toString();
+    }
+
+    private static String normalize(final String include)
+    {
+        String pattern = include.replace('\\', '/');
+        while (pattern.startsWith("/"))
+        {
+            pattern = pattern.substring(1);
+        }
+        // Gradle includes everything below a pattern ending with a slash
+        return escape(pattern.endsWith("/") ? pattern + "**" : pattern);
+    }
+
+    private static void expand(final String pattern, final Set<String> alternatives)
+    {
+        final int index = pattern.indexOf(ANY_DIRECTORIES);
+        if (index < 0)
+        {
+            alternatives.add(pattern);
+            return;
+        }
+        final String prefix = pattern.substring(0, index);
+        final String suffix = pattern.substring(index + ANY_DIRECTORIES.length());
+        final Set<String> suffixes = new LinkedHashSet<>();
+        expand(suffix, suffixes);
+        for (final String expandedSuffix : suffixes)
+        {
+            alternatives.add(prefix + expandedSuffix);
+            alternatives.add(prefix + ANY_DIRECTORIES + expandedSuffix);
+        }
+    }
+
+    private static String escape(final String value)
+    {
+        final StringBuilder escaped = new StringBuilder(value.length());
+        for (final char c : value.toCharArray())
+        {
+            if (SPECIAL_CHARACTERS.indexOf(c) >= 0)
+            {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
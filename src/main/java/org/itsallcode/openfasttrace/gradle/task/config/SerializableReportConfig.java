@@ -0,0 +1,47 @@
+package org.itsallcode.openfasttrace.gradle.task.config;
+
+import java.io.File;
+import java.io.Serializable;
+
+import org.itsallcode.openfasttrace.api.report.ReportVerbosity;
+
+/**
+ * Format, verbosity and output file of one tracing report.
+ */
+public class SerializableReportConfig implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+    private final File file;
+    private final String format;
+    private final ReportVerbosity verbosity;
+
+    public SerializableReportConfig(final File file, final String format,
+            final ReportVerbosity verbosity)
+    {
+        this.file = file;
+        this.format = format;
+        this.verbosity = verbosity;
+    }
+
+    public File getFile()
+    {
+        return file;
+    }
+
+    public String getFormat()
+    {
+        return format;
+    }
+
+    public ReportVerbosity getVerbosity()
+    {
+        return verbosity;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SerializableReportConfig [file=" + file + ", format=" + format + ", verbosity="
+                + verbosity + "]";
+    }
+}
@@ -5,27 +5,65 @@ import static java.util.stream.Collectors.toList;
 import java.io.File;
 import java.io.Serializable;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
+import org.gradle.api.file.ConfigurableFileTree;
 import org.itsallcode.openfasttrace.api.importer.tag.config.PathConfig;
 import org.itsallcode.openfasttrace.gradle.config.TagConfig;
 
+/**
+ * Tag importer configuration passed to the workers.
+ * <p>
+ * Paths created with {@code fileTree(...)} and only include patterns are kept
+ * as base directory and patterns and matched with a glob, so they are not
+ * listed while the build is configured. All other paths are resolved to the
+ * list of files.
+ * <p>
+ * Paths are stored relative to the root directory, so that the task input
+ * doesn't change when the project is checked out at a different location.
+ */
 public class SerializableTagConfig implements Serializable
 {
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 3L;
     // non-transient instance field of a serializable class declared with a
     // non-serializable type (Java 21)
     // We use only serializable types
     @SuppressWarnings("serial")
-    private final Set<File> paths;
+    private final List<String> paths;
+    private final String baseDirectory;
+    @SuppressWarnings("serial")
+    private final List<String> includes;
     private final String coveredItemArtifactType;
     private final String tagArtifactType;
     private final String coveredItemNamePrefix;
 
-    public SerializableTagConfig(final TagConfig tagConfig)
+    /**
+     * Create a new configuration.
+     *
+     * @param tagConfig
+     *            the tag configuration of the build script
+     * @param rootDirectory
+     *            directory to which the paths are stored relative
+     */
+    public SerializableTagConfig(final TagConfig tagConfig, final File rootDirectory)
     {
-        paths = tagConfig.paths.getFiles();
+        final Path root = rootDirectory.toPath().toAbsolutePath().normalize();
+        if (tagConfig.paths instanceof final ConfigurableFileTree tree
+                && tree.getExcludes().isEmpty())
+        {
+            // Globs can't express excludes, such trees are resolved instead
+            paths = List.of();
+            baseDirectory = relativize(root, tree.getDir());
+            includes = new ArrayList<>(tree.getIncludes());
+        }
+        else
+        {
+            paths = tagConfig.paths.getFiles().stream().map(file -> relativize(root, file))
+                    .collect(toList());
+            baseDirectory = null;
+            includes = List.of();
+        }
         coveredItemArtifactType = tagConfig.coveredItemArtifactType;
         tagArtifactType = tagConfig.tagArtifactType;
         coveredItemNamePrefix = tagConfig.coveredItemNamePrefix != null
@@ -33,9 +71,32 @@ public class SerializableTagConfig implements Serializable
                 : (tagConfig.getProjectName() + ".");
     }
 
-    public List<Path> getPaths()
+    // Paths on another file system root, e.g. another drive on Windows, can't
+    // be relative and stay absolute
+    private static String relativize(final Path rootDirectory, final File file)
+    {
+        final Path path = file.toPath().toAbsolutePath().normalize();
+        if (!rootDirectory.getRoot().equals(path.getRoot()))
+        {
+            return path.toString();
+        }
+        return rootDirectory.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * @param rootDirectory
+     *            the root directory the paths are relative to
+     * @return the configured files or an empty list if the files are matched
+     *         by pattern
+     */
+    public List<Path> getPaths(final File rootDirectory)
+    {
+        return paths.stream().map(path -> resolve(rootDirectory, path)).collect(toList());
+    }
+
+    private static Path resolve(final File rootDirectory, final String path)
     {
-        return paths.stream().map(File::toPath).collect(toList());
+        return rootDirectory.toPath().toAbsolutePath().resolve(path).normalize();
     }
 
     public String getCoveredItemArtifactType()
@@ -53,20 +114,32 @@ public class SerializableTagConfig implements Serializable
         return coveredItemNamePrefix;
     }
 
-    public PathConfig convert()
+    /**
+     * Convert to the configuration of OpenFastTrace's tag importer.
+     *
+     * @param rootDirectory
+     *            the root directory the paths are relative to
+     * @return the converted configuration
+     */
+    public PathConfig convert(final File rootDirectory)
     {
-        return PathConfig.builder() //
+        final PathConfig.Builder builder = PathConfig.builder() //
                 .coveredItemArtifactType(coveredItemArtifactType)
                 .coveredItemNamePrefix(coveredItemNamePrefix) //
-                .tagArtifactType(tagArtifactType) //
-                .pathListMatcher(getPaths()) //
-                .build();
+                .tagArtifactType(tagArtifactType);
+        if (baseDirectory != null)
+        {
+            return builder.patternPathMatcher(GlobPatterns
+                    .toGlob(resolve(rootDirectory, baseDirectory).toFile(), includes)).build();
+        }
+        return builder.pathListMatcher(getPaths(rootDirectory)).build();
     }
 
     @Override
     public String toString()
     {
-        return "SerializableTagConfig [paths=" + paths + ", coveredItemArtifactType="
+        return "SerializableTagConfig [paths=" + paths + ", baseDirectory=" + baseDirectory
+                + ", includes=" + includes + ", coveredItemArtifactType="
                 + coveredItemArtifactType + ", tagArtifactType=" + tagArtifactType
                 + ", coveredItemNamePrefix=" + coveredItemNamePrefix + "]";
     }
@@ -2,8 +2,8 @@ package org.itsallcode.openfasttrace.gradle.task.config;
 
 import static java.util.stream.Collectors.toList;
 
+import java.io.File;
 import java.io.Serializable;
-import java.nio.file.Path;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -12,27 +12,39 @@ import org.itsallcode.openfasttrace.gradle.config.TagPathConfiguration;
 
 public class SerializableTagPathConfig implements Serializable
 {
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
     // non-transient instance field of a serializable class declared with a
     // non-serializable type (Java 21)
     // We use only serializable types
     @SuppressWarnings("serial")
     private final List<SerializableTagConfig> tagConfigs;
 
-    public SerializableTagPathConfig(final TagPathConfiguration tagPathConfig)
+    /**
+     * Create a new configuration.
+     *
+     * @param tagPathConfig
+     *            the tag configuration of the build script
+     * @param rootDirectory
+     *            directory to which the paths are stored relative
+     */
+    public SerializableTagPathConfig(final TagPathConfiguration tagPathConfig,
+            final File rootDirectory)
     {
-        tagConfigs = tagPathConfig.getPathConfig().stream().map(SerializableTagConfig::new)
+        tagConfigs = tagPathConfig.getPathConfig().stream()
+                .map(tagConfig -> new SerializableTagConfig(tagConfig, rootDirectory))
                 .collect(toList());
     }
 
-    public Stream<Path> getPaths()
+    /**
+     * Convert to the configurations of OpenFastTrace's tag importer.
+     *
+     * @param rootDirectory
+     *            the root directory the paths are relative to
+     * @return the converted configurations
+     */
+    public Stream<PathConfig> getPathConfig(final File rootDirectory)
     {
-        return tagConfigs.stream().map(SerializableTagConfig::getPaths).flatMap(List::stream);
-    }
-
-    public Stream<PathConfig> getPathConfig()
-    {
-        return tagConfigs.stream().map(SerializableTagConfig::convert);
+        return tagConfigs.stream().map(tagConfig -> tagConfig.convert(rootDirectory));
     }
 
     @Override
@@ -0,0 +1,77 @@
+package org.itsallcode.openfasttrace.gradle.task.config;
+
+import java.io.Serializable;
+import java.util.Set;
+
+import org.itsallcode.openfasttrace.api.FilterSettings;
+
+/**
+ * Filter and report of one trace view.
+ */
+public class SerializableViewConfig implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+    private final String name;
+    // non-transient instance field of a serializable class declared with a
+    // non-serializable type (Java 21)
+    // We use only serializable types
+    @SuppressWarnings("serial")
+    private final Set<String> artifactTypes;
+    @SuppressWarnings("serial")
+    private final Set<String> tags;
+    private final boolean acceptItemsWithoutTag;
+    private final SerializableReportConfig report;
+
+    public SerializableViewConfig(final String name, final Set<String> artifactTypes,
+            final Set<String> tags, final boolean acceptItemsWithoutTag,
+            final SerializableReportConfig report)
+    {
+        this.name = name;
+        this.artifactTypes = artifactTypes;
+        this.tags = tags;
+        this.acceptItemsWithoutTag = acceptItemsWithoutTag;
+        this.report = report;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public Set<String> getArtifactTypes()
+    {
+        return artifactTypes;
+    }
+
+    public Set<String> getTags()
+    {
+        return tags;
+    }
+
+    public boolean isAcceptItemsWithoutTag()
+    {
+        return acceptItemsWithoutTag;
+    }
+
+    public SerializableReportConfig getReport()
+    {
+        return report;
+    }
+
+    public FilterSettings getFilterSettings()
+    {
+        return FilterSettings.builder() //
+                .artifactTypes(artifactTypes) //
+                .tags(tags) //
+                .withoutTags(acceptItemsWithoutTag) //
+                .build();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SerializableViewConfig [name=" + name + ", artifactTypes=" + artifactTypes
+                + ", tags=" + tags + ", acceptItemsWithoutTag=" + acceptItemsWithoutTag
+                + ", report=" + report + "]";
+    }
+}
@@ -0,0 +1,102 @@
+package org.itsallcode.openfasttrace.gradle.task.exporter;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.*;
+
+import org.itsallcode.openfasttrace.api.ReportSettings;
+import org.itsallcode.openfasttrace.api.core.Trace;
+import org.itsallcode.openfasttrace.core.Oft;
+
+/**
+ * Renders several reports of the same trace on a bounded thread pool.
+ */
+public class ParallelReportWriter
+{
+    private final Oft oft;
+    private final int parallelism;
+
+    public ParallelReportWriter(final Oft oft, final int parallelism)
+    {
+        this.oft = oft;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Write the given reports.
+     *
+     * @param trace
+     *            the trace to report
+     * @param reports
+     *            the reports to write
+     */
+    public void write(final Trace trace, final List<Report> reports)
+    {
+        if (parallelism == 1 || reports.size() <= 1)
+        {
+            reports.forEach(report -> writeReport(trace, report));
+            return;
+        }
+        final ExecutorService executor = Executors
+                .newFixedThreadPool(Math.min(parallelism, reports.size()));
+        try
+        {
+            final List<Future<Void>> results = executor.invokeAll(reports.stream()
+                    .<Callable<Void>> map(report -> () -> {
+                        writeReport(trace, report);
+                        return null;
+                    }).toList());
+            for (final Future<Void> result : results)
+            {
+                getResult(result);
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing reports", e);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private void writeReport(final Trace trace, final Report report)
+    {
+        oft.reportToPath(trace, report.path(), report.settings());
+    }
+
+    private static void getResult(final Future<Void> result)
+    {
+        try
+        {
+            result.get();
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while writing reports", e);
+        }
+        catch (final ExecutionException e)
+        {
+            if (e.getCause() instanceof final RuntimeException runtimeException)
+            {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Error writing report", e.getCause());
+        }
+    }
+
+    /**
+     * A report to write.
+     *
+     * @param path
+     *            the output file
+     * @param settings
+     *            format and verbosity of the report
+     */
+    public record Report(Path path, ReportSettings settings)
+    {
+    }
+}
@@ -0,0 +1,221 @@
+package org.itsallcode.openfasttrace.gradle.task.exporter;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import javax.xml.stream.*;
+
+import org.itsallcode.openfasttrace.api.core.*;
+
+/**
+ * Writes specification items to a specobject file in multiple steps.
+ * <p>
+ * OpenFastTrace's exporter groups all items by artifact type before writing
+ * them, so it needs the complete list of items. The specobject format allows
+ * multiple {@code specobjects} elements for the same artifact type, so this
+ * writer can write each group of items as soon as it was imported and does not
+ * keep them in memory.
+ */
+public class SpecobjectWriter implements Closeable
+{
+    private static final String NEWLINE = "\n";
+    private static final String INDENT = "  ";
+
+    private final Path file;
+    private final Writer output;
+    private final XMLStreamWriter writer;
+    private int depth = 0;
+
+    private SpecobjectWriter(final Path file, final Writer output, final XMLStreamWriter writer)
+    {
+        this.file = file;
+        this.output = output;
+        this.writer = writer;
+    }
+
+    public static SpecobjectWriter create(final Path file)
+    {
+        try
+        {
+            final Writer output = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            final XMLStreamWriter writer = XMLOutputFactory.newFactory()
+                    .createXMLStreamWriter(output);
+            final SpecobjectWriter specobjectWriter = new SpecobjectWriter(file, output, writer);
+            specobjectWriter.writeStartDocument();
+            return specobjectWriter;
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException("Error writing specobject file " + file, e);
+        }
+        catch (final XMLStreamException e)
+        {
+            throw new IllegalStateException("Error writing specobject file " + file, e);
+        }
+    }
+
+    private void writeStartDocument() throws XMLStreamException
+    {
+        writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+        writer.writeCharacters(NEWLINE);
+        writeStartElement("specdocument");
+    }
+
+    /**
+     * Write the given items grouped by artifact type.
+     *
+     * @param items
+     *            the items to write
+     */
+    public void write(final List<SpecificationItem> items)
+    {
+        final Map<String, List<SpecificationItem>> itemsByType = items.stream()
+                .collect(groupingBy(item -> item.getId().getArtifactType(), TreeMap::new,
+                        toList()));
+        try
+        {
+            for (final Map.Entry<String, List<SpecificationItem>> entry : itemsByType.entrySet())
+            {
+                writeStartElement("specobjects", entry.getKey());
+                for (final SpecificationItem item : entry.getValue())
+                {
+                    writeItem(item);
+                }
+                writeEndElement();
+            }
+        }
+        catch (final XMLStreamException e)
+        {
+            throw new IllegalStateException("Error writing specobject file " + file, e);
+        }
+    }
+
+    private void writeItem(final SpecificationItem item) throws XMLStreamException
+    {
+        writeStartElement("specobject");
+        writeElement("id", item.getId().getName());
+        if (item.getStatus() != null)
+        {
+            writeElement("status", item.getStatus().name().toLowerCase(Locale.ROOT));
+        }
+        writeElement("version", String.valueOf(item.getId().getRevision()));
+        writeElement("shortdesc", item.getTitle());
+        writeElement("description", item.getDescription());
+        writeElement("rationale", item.getRationale());
+        writeElement("comment", item.getComment());
+        if (item.getLocation() != null)
+        {
+            writeElement("sourcefile", item.getLocation().getPath());
+            writeElement("sourceline", String.valueOf(item.getLocation().getLine()));
+        }
+        if (!item.getTags().isEmpty())
+        {
+            writeStartElement("tags");
+            for (final String tag : item.getTags())
+            {
+                writeElement("tag", tag);
+            }
+            writeEndElement();
+        }
+        if (!item.getNeedsArtifactTypes().isEmpty())
+        {
+            writeStartElement("needscoverage");
+            for (final String artifactType : item.getNeedsArtifactTypes())
+            {
+                writeElement("needsobj", artifactType);
+            }
+            writeEndElement();
+        }
+        if (!item.getCoveredIds().isEmpty())
+        {
+            writeStartElement("providescoverage");
+            for (final SpecificationItemId id : item.getCoveredIds())
+            {
+                writeStartElement("provcov");
+                writeElement("linksto", id.getArtifactType() + ":" + id.getName());
+                writeElement("dstversion", String.valueOf(id.getRevision()));
+                writeEndElement();
+            }
+            writeEndElement();
+        }
+        if (!item.getDependOnIds().isEmpty())
+        {
+            writeStartElement("dependencies");
+            for (final SpecificationItemId id : item.getDependOnIds())
+            {
+                writeElement("dependson", id.toString());
+            }
+            writeEndElement();
+        }
+        writeEndElement();
+    }
+
+    private void writeElement(final String name, final String value) throws XMLStreamException
+    {
+        if (value == null || value.isEmpty())
+        {
+            return;
+        }
+        writeIndentation();
+        writer.writeStartElement(name);
+        writer.writeCharacters(value);
+        writer.writeEndElement();
+        writer.writeCharacters(NEWLINE);
+    }
+
+    private void writeStartElement(final String name) throws XMLStreamException
+    {
+        writeStartElement(name, null);
+    }
+
+    private void writeStartElement(final String name, final String doctype)
+            throws XMLStreamException
+    {
+        writeIndentation();
+        writer.writeStartElement(name);
+        if (doctype != null)
+        {
+            writer.writeAttribute("doctype", doctype);
+        }
+        writer.writeCharacters(NEWLINE);
+        depth++;
+    }
+
+    private void writeEndElement() throws XMLStreamException
+    {
+        depth--;
+        writeIndentation();
+        writer.writeEndElement();
+        writer.writeCharacters(NEWLINE);
+    }
+
+    private void writeIndentation() throws XMLStreamException
+    {
+        writer.writeCharacters(INDENT.repeat(depth));
+    }
+
+    @Override
+    public void close()
+    {
+        try (output)
+        {
+            writeEndElement();
+            writer.writeEndDocument();
+            writer.close();
+        }
+        catch (final XMLStreamException e)
+        {
+            throw new IllegalStateException("Error writing specobject file " + file, e);
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException("Error writing specobject file " + file, e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.itsallcode.openfasttrace.gradle.task.importer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.importer.ImporterFactory;
+import org.itsallcode.openfasttrace.api.importer.tag.config.PathConfig;
+import org.itsallcode.openfasttrace.core.Oft;
+import org.itsallcode.openfasttrace.gradle.task.cache.ParsedItemCache;
+
+/**
+ * Looks up the items of a file in a {@link ParsedItemCache} before parsing it.
+ * <p>
+ * Items contain the path of the file and depend on the tag importer
+ * configuration, so the cache key combines the file content with the path and
+ * a fingerprint of the import settings. Only files that would be parsed are
+ * looked up: binary requirements files and files skipped by the tag marker
+ * prefilter are neither read for the key nor cached.
+ */
+public class CachingFileImporter extends FileImporter
+{
+    private final ParsedItemCache cache;
+    private final String settingsFingerprint;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * Create a new importer.
+     *
+     * @param oft
+     *            the OpenFastTrace engine
+     * @param pathConfigs
+     *            tag importer path configurations
+     * @param importerFactories
+     *            new, not yet initialized importer factories
+     * @param cache
+     *            the cache
+     * @param settingsFingerprint
+     *            fingerprint of the import settings
+     */
+    public CachingFileImporter(final Oft oft, final List<PathConfig> pathConfigs,
+            final List<ImporterFactory> importerFactories, final ParsedItemCache cache,
+            final String settingsFingerprint)
+    {
+        super(oft, pathConfigs, importerFactories);
+        this.cache = cache;
+        this.settingsFingerprint = settingsFingerprint;
+    }
+
+    @Override
+    protected List<SpecificationItem> importSupportedFile(final Path file,
+            final ImporterFactory factory)
+    {
+        final String key = createKey(file);
+        final Optional<List<SpecificationItem>> cachedItems = cache.get(key);
+        if (cachedItems.isPresent())
+        {
+            hits.incrementAndGet();
+            return cachedItems.get();
+        }
+        misses.incrementAndGet();
+        final List<SpecificationItem> items = super.importSupportedFile(file, factory);
+        cache.put(key, items);
+        return items;
+    }
+
+    private String createKey(final Path file)
+    {
+        try
+        {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(settingsFingerprint.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(file.toString().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(Files.readAllBytes(file));
+            return Base64.getEncoder().encodeToString(digest.digest());
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException("Error reading file " + file, e);
+        }
+        catch (final NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public int getHits()
+    {
+        return hits.get();
+    }
+
+    public int getMisses()
+    {
+        return misses.get();
+    }
+}
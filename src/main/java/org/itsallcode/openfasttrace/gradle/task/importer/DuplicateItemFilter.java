@@ -0,0 +1,93 @@
+package org.itsallcode.openfasttrace.gradle.task.importer;
+
+import java.util.*;
+
+import org.itsallcode.openfasttrace.api.core.Location;
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+
+/**
+ * Drops items of requirement fragments that this project imported from its own
+ * input files, too.
+ * <p>
+ * When the input directories of projects overlap, a file is imported by each
+ * of them and its items arrive once more with the requirement fragment of the
+ * other project. Only fragments can contain such duplicates, so the filter
+ * keeps the paths of the input files instead of a key per item: items of a
+ * fragment are dropped if their origin is one of these files. Input files must
+ * therefore be filtered before all fragments. Items without origin are never
+ * dropped.
+ */
+public class DuplicateItemFilter
+{
+    private final Set<String> fragmentFiles;
+    private final Set<String> inputFiles = new HashSet<>();
+    private int duplicates = 0;
+
+    /**
+     * Create a new filter.
+     *
+     * @param fragmentFiles
+     *            paths of the requirement fragments in the form of origins
+     */
+    public DuplicateItemFilter(final Set<String> fragmentFiles)
+    {
+        this.fragmentFiles = fragmentFiles;
+    }
+
+    /**
+     * @param file
+     *            path of an imported file in the form of origins
+     * @return {@code true} if the file is a requirement fragment
+     */
+    public boolean isFragment(final String file)
+    {
+        return fragmentFiles.contains(file);
+    }
+
+    /**
+     * Filter the items imported from the given file.
+     *
+     * @param file
+     *            path of the imported file in the form of origins
+     * @param items
+     *            the items imported from the file
+     * @return all items of an input file or the items of a fragment that no
+     *         input file contains
+     */
+    public List<SpecificationItem> filter(final String file, final List<SpecificationItem> items)
+    {
+        if (!isFragment(file))
+        {
+            inputFiles.add(file);
+            return items;
+        }
+        final List<SpecificationItem> distinctItems = new ArrayList<>(items.size());
+        for (final SpecificationItem item : items)
+        {
+            if (isFromInputFile(item))
+            {
+                duplicates++;
+            }
+            else
+            {
+                distinctItems.add(item);
+            }
+        }
+        return distinctItems;
+    }
+
+    private boolean isFromInputFile(final SpecificationItem item)
+    {
+        final Location location = item.getLocation();
+        return location != null && location.getPath() != null
+                && inputFiles.contains(location.getPath());
+    }
+
+    /**
+     * @return number of items dropped so far
+     */
+    public int getDuplicates()
+    {
+        return duplicates;
+    }
+}
@@ -0,0 +1,252 @@
+package org.itsallcode.openfasttrace.gradle.task.importer;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.gradle.api.logging.Logging;
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.importer.*;
+import org.itsallcode.openfasttrace.api.importer.input.RealFileInput;
+import org.itsallcode.openfasttrace.api.importer.tag.config.PathConfig;
+import org.itsallcode.openfasttrace.core.Oft;
+import org.itsallcode.openfasttrace.gradle.task.cache.BinaryRequirementsFormat;
+import org.slf4j.Logger;
+
+/**
+ * Imports specification items from single files.
+ * <p>
+ * OFT silently skips unsupported files when walking a directory but fails when
+ * an unsupported file is imported explicitly. This class checks the importers
+ * available on the classpath first so that files from input directories can be
+ * imported one by one.
+ * <p>
+ * Files handled by the tag importer are only imported if they contain a tag
+ * marker, see {@link TagMarkerScanner}.
+ * <p>
+ * The importer factories are initialized once and create the importer for each
+ * file directly. Importing through {@link Oft#importItems(ImportSettings)}
+ * would set up a new importer service and look up the importer plugins again
+ * for every single file. Like OFT, a file is only imported if exactly one
+ * importer supports it.
+ */
+public class FileImporter
+{
+    private static final Logger LOG = Logging.getLogger(FileImporter.class);
+    private static final String TAG_IMPORTER_FACTORY = //
+            "org.itsallcode.openfasttrace.importer.tag.TagImporterFactory";
+    private static final String ZIP_IMPORTER_FACTORY = //
+            "org.itsallcode.openfasttrace.importer.zip.ZipFileImporterFactory";
+
+    private final Oft oft;
+    private final List<PathConfig> pathConfigs;
+    private final List<ImporterFactory> importerFactories;
+    private final AtomicInteger tagPrefilterSkipped = new AtomicInteger();
+    private final AtomicInteger tagPrefilterScanned = new AtomicInteger();
+
+    public FileImporter(final Oft oft, final List<PathConfig> pathConfigs)
+    {
+        this(oft, pathConfigs, ImporterFactoryTypes.load().createFactories());
+    }
+
+    /**
+     * Create a new importer using the given importer factories.
+     *
+     * @param oft
+     *            the OpenFastTrace engine
+     * @param pathConfigs
+     *            tag importer path configurations
+     * @param importerFactories
+     *            new, not yet initialized importer factories
+     */
+    public FileImporter(final Oft oft, final List<PathConfig> pathConfigs,
+            final List<ImporterFactory> importerFactories)
+    {
+        this.oft = oft;
+        this.pathConfigs = pathConfigs;
+        this.importerFactories = initImporterFactories(importerFactories, pathConfigs);
+    }
+
+    private static List<ImporterFactory> initImporterFactories(
+            final List<ImporterFactory> factories, final List<PathConfig> pathConfigs)
+    {
+        final ImporterContext context = new ImporterContext(
+                ImportSettings.builder().pathConfigs(pathConfigs).build());
+        factories.forEach(factory -> factory.init(context));
+        return factories;
+    }
+
+    public boolean supportsFile(final Path file)
+    {
+        return selectImporter(file) != SelectedImporter.NONE;
+    }
+
+    /**
+     * Get the name of the importer that imports the given file.
+     *
+     * @param file
+     *            the file
+     * @return simple class name of the importer factory or {@code none} if no
+     *         importer supports the file
+     */
+    public String getImporterName(final Path file)
+    {
+        return selectImporter(file).name();
+    }
+
+    /**
+     * Select the importer for the given file. Binary requirements files are
+     * recognized by their file name extension.
+     *
+     * @param file
+     *            the file
+     * @return the importer or {@link SelectedImporter#NONE} if no importer
+     *         supports the file
+     */
+    public SelectedImporter selectImporter(final Path file)
+    {
+        if (BinaryRequirementsFormat.isBinaryFile(file))
+        {
+            return SelectedImporter.BINARY;
+        }
+        return getImporterFactory(file)
+                .map(factory -> new SelectedImporter(factory.getClass().getSimpleName(), factory))
+                .orElse(SelectedImporter.NONE);
+    }
+
+    // OpenFastTrace skips files that no importer or more than one importer
+    // supports
+    private Optional<ImporterFactory> getImporterFactory(final Path file)
+    {
+        final List<ImporterFactory> matchingFactories = importerFactories.stream()
+                .filter(factory -> factory.supportsFile(RealFileInput.forPath(file))).toList();
+        if (matchingFactories.size() > 1)
+        {
+            LOG.warn("Found more than one matching importer for file '{}'. "
+                    + "Please specify a filter to select one of these importers: {}", file,
+                    matchingFactories);
+            return Optional.empty();
+        }
+        return matchingFactories.stream().findFirst();
+    }
+
+    /**
+     * @return number of files the tag importer skipped because they contain
+     *         no tag marker
+     */
+    public int getTagPrefilterSkipped()
+    {
+        return tagPrefilterSkipped.get();
+    }
+
+    /**
+     * @return number of files the tag importer scanned because they contain
+     *         a tag marker
+     */
+    public int getTagPrefilterScanned()
+    {
+        return tagPrefilterScanned.get();
+    }
+
+    /**
+     * Import the given file.
+     *
+     * @param file
+     *            the file to import
+     * @return the imported items or an empty list if no importer supports the
+     *         file
+     */
+    public List<SpecificationItem> importFile(final Path file)
+    {
+        return importFile(file, selectImporter(file));
+    }
+
+    /**
+     * Import the given file with an importer selected before.
+     *
+     * @param file
+     *            the file to import
+     * @param importer
+     *            the importer selected by {@link #selectImporter(Path)}
+     * @return the imported items or an empty list if no importer supports the
+     *         file
+     */
+    public List<SpecificationItem> importFile(final Path file, final SelectedImporter importer)
+    {
+        if (importer == SelectedImporter.BINARY)
+        {
+            return BinaryRequirementsFormat.read(file);
+        }
+        final ImporterFactory factory = importer.factory();
+        if (factory == null)
+        {
+            return Collections.emptyList();
+        }
+        if (TAG_IMPORTER_FACTORY.equals(factory.getClass().getName()))
+        {
+            if (!TagMarkerScanner.containsTagMarker(file))
+            {
+                tagPrefilterSkipped.incrementAndGet();
+                return Collections.emptyList();
+            }
+            tagPrefilterScanned.incrementAndGet();
+        }
+        return importSupportedFile(file, factory);
+    }
+
+    /**
+     * Import a file that the given importer supports and that passed the tag
+     * marker prefilter.
+     *
+     * @param file
+     *            the file to import
+     * @param factory
+     *            the factory of the importer that supports the file
+     * @return the imported items
+     */
+    protected List<SpecificationItem> importSupportedFile(final Path file,
+            final ImporterFactory factory)
+    {
+        if (ZIP_IMPORTER_FACTORY.equals(factory.getClass().getName()))
+        {
+            return importWithImporterService(file);
+        }
+        final SpecificationListBuilder builder = SpecificationListBuilder.create();
+        factory.createImporter(RealFileInput.forPath(file), builder).runImport();
+        return builder.build();
+    }
+
+    // The zip importer imports the archive entries through the importer service
+    // of its context, which only OFT itself can provide
+    private List<SpecificationItem> importWithImporterService(final Path file)
+    {
+        final ImportSettings settings = ImportSettings.builder() //
+                .addInputs(file) //
+                .pathConfigs(pathConfigs) //
+                .build();
+        return oft.importItems(settings);
+    }
+
+    /**
+     * The importer selected for a file.
+     *
+     * @param name
+     *            name of the importer for metrics and events
+     * @param factory
+     *            the importer factory or {@code null} for binary requirements
+     *            files and unsupported files
+     */
+    public record SelectedImporter(String name, ImporterFactory factory)
+    {
+        /**
+         * Reads binary requirements files.
+         */
+        public static final SelectedImporter BINARY = new SelectedImporter(
+                BinaryRequirementsFormat.class.getSimpleName(), null);
+
+        /**
+         * No importer supports the file.
+         */
+        public static final SelectedImporter NONE = new SelectedImporter("none", null);
+    }
+}
@@ -0,0 +1,67 @@
+package org.itsallcode.openfasttrace.gradle.task.importer;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.ServiceLoader;
+
+import org.itsallcode.openfasttrace.api.importer.ImporterFactory;
+
+/**
+ * The importer plugins available on the classpath.
+ * <p>
+ * Importer factories keep the import settings they were initialized with, so
+ * each import needs its own instances. Looking up the plugins is done only once
+ * and new instances are created from the found classes.
+ */
+public final class ImporterFactoryTypes
+{
+    private final List<Class<? extends ImporterFactory>> types;
+
+    private ImporterFactoryTypes(final List<Class<? extends ImporterFactory>> types)
+    {
+        this.types = types;
+    }
+
+    /**
+     * Look up the importer plugins available to OpenFastTrace.
+     *
+     * @return the importer factory types
+     */
+    public static ImporterFactoryTypes load()
+    {
+        return new ImporterFactoryTypes(
+                ServiceLoader.load(ImporterFactory.class, ImporterFactory.class.getClassLoader())
+                        .stream()
+                        .<Class<? extends ImporterFactory>> map(ServiceLoader.Provider::type)
+                        .toList());
+    }
+
+    /**
+     * Create new instances of all importer factories.
+     *
+     * @return new, not yet initialized importer factories
+     */
+    public List<ImporterFactory> createFactories()
+    {
+        return types.stream().map(ImporterFactoryTypes::createInstance).toList();
+    }
+
+    public int size()
+    {
+        return types.size();
+    }
+
+    private static ImporterFactory createInstance(final Class<? extends ImporterFactory> type)
+    {
+        try
+        {
+            return type.getDeclaredConstructor().newInstance();
+        }
+        catch (final InstantiationException | IllegalAccessException | InvocationTargetException
+                | NoSuchMethodException e)
+        {
+            throw new IllegalStateException("Error creating importer factory " + type.getName(),
+                    e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.itsallcode.openfasttrace.gradle.task.importer;
+
+import java.util.List;
+import java.util.Set;
+
+import org.itsallcode.openfasttrace.api.FilterSettings;
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+
+/**
+ * Applies {@link FilterSettings} to items that were not read by an OFT
+ * importer, the same way OFT filters items during import.
+ */
+public class ItemFilter
+{
+    private final FilterSettings settings;
+
+    public ItemFilter(final FilterSettings settings)
+    {
+        this.settings = settings;
+    }
+
+    public List<SpecificationItem> filter(final List<SpecificationItem> items)
+    {
+        if (!settings.isArtifactTypeCriteriaSet() && !settings.isTagCriteriaSet())
+        {
+            return items;
+        }
+        return items.stream() //
+                .filter(this::isAccepted) //
+                .map(this::removeFilteredArtifactTypes) //
+                .toList();
+    }
+
+    private boolean isAccepted(final SpecificationItem item)
+    {
+        return isAcceptedArtifactType(item.getId().getArtifactType()) && isAcceptedTag(item);
+    }
+
+    private boolean isAcceptedArtifactType(final String artifactType)
+    {
+        return !settings.isArtifactTypeCriteriaSet()
+                || settings.getArtifactTypes().contains(artifactType);
+    }
+
+    private boolean isAcceptedTag(final SpecificationItem item)
+    {
+        if (!settings.isTagCriteriaSet())
+        {
+            return true;
+        }
+        final List<String> tags = item.getTags();
+        if (tags.isEmpty())
+        {
+            return settings.withoutTags();
+        }
+        final Set<String> acceptedTags = settings.getTags();
+        return tags.stream().anyMatch(acceptedTags::contains);
+    }
+
+    // OFT drops needed artifact types and coverage links to filtered artifact
+    // types, otherwise tracing would report missing coverage for them
+    private SpecificationItem removeFilteredArtifactTypes(final SpecificationItem item)
+    {
+        if (!settings.isArtifactTypeCriteriaSet())
+        {
+            return item;
+        }
+        final SpecificationItem.Builder builder = SpecificationItems.copyWithoutLinks(item);
+        item.getNeedsArtifactTypes().stream() //
+                .filter(this::isAcceptedArtifactType) //
+                .forEach(builder::addNeedsArtifactType);
+        item.getCoveredIds().stream() //
+                .filter(id -> isAcceptedArtifactType(id.getArtifactType())) //
+                .forEach(builder::addCoveredId);
+        item.getDependOnIds().forEach(builder::addDependOnId);
+        return builder.build();
+    }
+}
@@ -0,0 +1,99 @@
+package org.itsallcode.openfasttrace.gradle.task.importer;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.itsallcode.openfasttrace.api.core.Location;
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+
+/**
+ * Converts the paths of imported files and item origins to the form written to
+ * cache and output files.
+ * <p>
+ * For relocatable builds paths are written relative to a base directory using
+ * {@code /} as separator, so that the outputs don't depend on the location of
+ * the checkout. Paths outside of the base directory, e.g. of requirement
+ * archives in Gradle's dependency cache, are reduced to the file name.
+ */
+public final class OriginPaths
+{
+    private final Path baseDirectory;
+
+    private OriginPaths(final Path baseDirectory)
+    {
+        this.baseDirectory = baseDirectory;
+    }
+
+    /**
+     * @return an instance that keeps absolute paths
+     */
+    public static OriginPaths absolute()
+    {
+        return new OriginPaths(null);
+    }
+
+    /**
+     * @param baseDirectory
+     *            the directory to which paths are relative
+     * @return an instance that converts absolute paths to relative paths
+     */
+    public static OriginPaths relativeTo(final Path baseDirectory)
+    {
+        return new OriginPaths(baseDirectory.toAbsolutePath().normalize());
+    }
+
+    /**
+     * Convert the given path.
+     *
+     * @param path
+     *            the path to convert
+     * @return the converted path
+     */
+    public String convert(final Path path)
+    {
+        if (baseDirectory == null || !path.isAbsolute())
+        {
+            return path.toString();
+        }
+        final Path normalizedPath = path.normalize();
+        if (!normalizedPath.startsWith(baseDirectory))
+        {
+            final Path fileName = normalizedPath.getFileName();
+            return fileName == null ? path.toString() : fileName.toString();
+        }
+        return baseDirectory.relativize(normalizedPath).toString().replace(File.separatorChar,
+                '/');
+    }
+
+    /**
+     * Convert the origins of the given items.
+     *
+     * @param items
+     *            the items to convert
+     * @return the items with converted origins
+     */
+    public List<SpecificationItem> convertOrigins(final List<SpecificationItem> items)
+    {
+        if (baseDirectory == null)
+        {
+            return items;
+        }
+        return items.stream().map(this::convertOrigin).toList();
+    }
+
+    private SpecificationItem convertOrigin(final SpecificationItem item)
+    {
+        final Location location = item.getLocation();
+        if (location == null || location.getPath() == null)
+        {
+            return item;
+        }
+        final String path = convert(Path.of(location.getPath()));
+        if (path.equals(location.getPath()))
+        {
+            return item;
+        }
+        return SpecificationItems.copyWithLocation(item, Location.create(path, location.getLine()));
+    }
+}
@@ -0,0 +1,196 @@
+package org.itsallcode.openfasttrace.gradle.task.importer;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.gradle.task.metrics.ImportFileEvent;
+import org.itsallcode.openfasttrace.gradle.task.metrics.TaskMetrics;
+
+/**
+ * Splits the files to import into shards and imports them on a bounded
+ * thread pool. Emits an {@link ImportFileEvent} to Java Flight Recorder for
+ * each file.
+ */
+public class ParallelFileImporter
+{
+    private static final int SHARDS_PER_THREAD = 4;
+
+    private final FileImporter fileImporter;
+    private final int parallelism;
+    private final TaskMetrics metrics;
+
+    public ParallelFileImporter(final FileImporter fileImporter, final int parallelism)
+    {
+        this(fileImporter, parallelism, null);
+    }
+
+    /**
+     * Create a new importer that records the import time per importer and the
+     * size of the imported files.
+     *
+     * @param fileImporter
+     *            the importer for single files
+     * @param parallelism
+     *            maximum number of threads
+     * @param metrics
+     *            the metrics to record or {@code null}
+     */
+    public ParallelFileImporter(final FileImporter fileImporter, final int parallelism,
+            final TaskMetrics metrics)
+    {
+        this.fileImporter = fileImporter;
+        this.parallelism = Math.max(1, parallelism);
+        this.metrics = metrics;
+    }
+
+    /**
+     * Import the given files.
+     *
+     * @param files
+     *            the files to import
+     * @return the imported items for each file in the order of the given files
+     */
+    public Map<Path, List<SpecificationItem>> importFiles(final List<Path> files)
+    {
+        if (parallelism == 1 || files.size() <= 1)
+        {
+            return importShard(files);
+        }
+        final ExecutorService executor = createExecutor();
+        try
+        {
+            return importFiles(files, executor);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Import the given files using an executor created by
+     * {@link #createExecutor()}. Callers that import many small batches reuse
+     * the executor for all of them and shut it down when they are done.
+     *
+     * @param files
+     *            the files to import
+     * @param executor
+     *            the executor
+     * @return the imported items for each file in the order of the given files
+     */
+    public Map<Path, List<SpecificationItem>> importFiles(final List<Path> files,
+            final ExecutorService executor)
+    {
+        if (parallelism == 1 || files.size() <= 1)
+        {
+            return importShard(files);
+        }
+        try
+        {
+            final List<Future<Map<Path, List<SpecificationItem>>>> results = executor
+                    .invokeAll(createShards(files).stream().map(this::createImportTask).toList());
+            final Map<Path, List<SpecificationItem>> itemsByFile = new LinkedHashMap<>();
+            for (final Future<Map<Path, List<SpecificationItem>>> result : results)
+            {
+                itemsByFile.putAll(getResult(result));
+            }
+            return itemsByFile;
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while importing files", e);
+        }
+    }
+
+    /**
+     * Create an executor with one thread per parallel import.
+     *
+     * @return a new executor that the caller must shut down
+     */
+    public ExecutorService createExecutor()
+    {
+        // Threads of a ForkJoinPool use the system class loader as context class
+        // loader, so OFT would not find its importer plugins there
+        return Executors.newFixedThreadPool(parallelism);
+    }
+
+    private List<List<Path>> createShards(final List<Path> files)
+    {
+        final int shardCount = Math.min(files.size(), parallelism * SHARDS_PER_THREAD);
+        final int shardSize = (files.size() + shardCount - 1) / shardCount;
+        final List<List<Path>> shards = new ArrayList<>(shardCount);
+        for (int start = 0; start < files.size(); start += shardSize)
+        {
+            shards.add(files.subList(start, Math.min(files.size(), start + shardSize)));
+        }
+        return shards;
+    }
+
+    private Callable<Map<Path, List<SpecificationItem>>> createImportTask(final List<Path> shard)
+    {
+        return () -> importShard(shard);
+    }
+
+    private Map<Path, List<SpecificationItem>> importShard(final List<Path> files)
+    {
+        final Map<Path, List<SpecificationItem>> itemsByFile = new LinkedHashMap<>();
+        for (final Path file : files)
+        {
+            final ImportFileEvent event = new ImportFileEvent();
+            event.begin();
+            final FileImporter.SelectedImporter importer = fileImporter.selectImporter(file);
+            final List<SpecificationItem> items = metrics == null
+                    ? fileImporter.importFile(file, importer)
+                    : importFileWithMetrics(file, importer);
+            if (event.shouldCommit())
+            {
+                event.path = file.toString();
+                event.importer = importer.name();
+                event.itemCount = items.size();
+                event.commit();
+            }
+            itemsByFile.put(file, items);
+        }
+        return itemsByFile;
+    }
+
+    // Files are imported in the threads of the pool, so the import phase of
+    // the calling thread does not include their CPU time
+    private List<SpecificationItem> importFileWithMetrics(final Path file,
+            final FileImporter.SelectedImporter importer)
+    {
+        final long startWall = System.nanoTime();
+        final long startCpu = TaskMetrics.getCurrentThreadCpuTime();
+        final List<SpecificationItem> items = fileImporter.importFile(file, importer);
+        metrics.addPhase("import." + importer.name(),
+                System.nanoTime() - startWall, TaskMetrics.getCurrentThreadCpuTime() - startCpu);
+        metrics.count("filesScanned", 1);
+        metrics.count("bytesRead", file.toFile().length());
+        return items;
+    }
+
+    private static Map<Path, List<SpecificationItem>> getResult(
+            final Future<Map<Path, List<SpecificationItem>>> result)
+    {
+        try
+        {
+            return result.get();
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while importing files", e);
+        }
+        catch (final ExecutionException e)
+        {
+            if (e.getCause() instanceof final RuntimeException runtimeException)
+            {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Error importing files", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.itsallcode.openfasttrace.gradle.task.importer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.*;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Calculates a digest of the content of a file that is relevant for the
+ * imported requirements.
+ * <p>
+ * Specification files like Markdown or specobject files consist of
+ * requirements, so their complete content is relevant. Of all other files only
+ * the lines containing a coverage tag are relevant together with their line
+ * numbers, which are part of the imported items. Edits of other lines that
+ * don't move a tag don't change the digest.
+ */
+public final class RequirementContent
+{
+    private static final Set<String> SPECIFICATION_EXTENSIONS = Set.of("md", "markdown", "rst",
+            "xml", "oreqm", "zip");
+    private static final Pattern TAG_PATTERN = Pattern.compile("\\[\\[|\\[[^\\[\\]]*->[^\\[\\]]*~");
+
+    private RequirementContent()
+    {
+        // Not instantiated
+    }
+
+    /**
+     * Calculate the digest of the relevant content of the given file.
+     *
+     * @param file
+     *            the file
+     * @return the digest
+     */
+    public static String digest(final Path file)
+    {
+        try
+        {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (isSpecification(file))
+            {
+                digest.update("specification\n".getBytes(StandardCharsets.UTF_8));
+                digest.update(Files.readAllBytes(file));
+            }
+            else
+            {
+                digest.update("tags\n".getBytes(StandardCharsets.UTF_8));
+                if (TagMarkerScanner.containsTagMarker(file))
+                {
+                    digestTagLines(file, digest);
+                }
+            }
+            return Base64.getEncoder().encodeToString(digest.digest());
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException("Error reading file " + file, e);
+        }
+        catch (final NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static boolean isSpecification(final Path file)
+    {
+        final String fileName = file.getFileName().toString();
+        final int extensionStart = fileName.lastIndexOf('.');
+        return extensionStart >= 0 && SPECIFICATION_EXTENSIONS
+                .contains(fileName.substring(extensionStart + 1).toLowerCase(Locale.ROOT));
+    }
+
+    // Tags consist of ASCII characters, so any file can be decoded as
+    // ISO-8859-1 without errors
+    private static void digestTagLines(final Path file, final MessageDigest digest)
+            throws IOException
+    {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1))
+        {
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                lineNumber++;
+                if (TAG_PATTERN.matcher(line).find())
+                {
+                    digest.update((lineNumber + ":" + line + "\n")
+                            .getBytes(StandardCharsets.ISO_8859_1));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.itsallcode.openfasttrace.gradle.task.importer;
+
+import org.itsallcode.openfasttrace.api.core.Location;
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+
+/**
+ * Helper methods for creating modified copies of immutable
+ * {@link SpecificationItem}s.
+ */
+public final class SpecificationItems
+{
+    private SpecificationItems()
+    {
+        // Not instantiable
+    }
+
+    /**
+     * Create a builder initialized with all properties of the given item except
+     * needed artifact types, covered IDs and depends-on IDs.
+     *
+     * @param item
+     *            the item to copy
+     * @return a new builder
+     */
+    public static SpecificationItem.Builder copyWithoutLinks(final SpecificationItem item)
+    {
+        final SpecificationItem.Builder builder = SpecificationItem.builder() //
+                .id(item.getId()) //
+                .forwards(item.isForwarding());
+        if (item.getTitle() != null)
+        {
+            builder.title(item.getTitle());
+        }
+        if (item.getDescription() != null)
+        {
+            builder.description(item.getDescription());
+        }
+        if (item.getRationale() != null)
+        {
+            builder.rationale(item.getRationale());
+        }
+        if (item.getComment() != null)
+        {
+            builder.comment(item.getComment());
+        }
+        if (item.getLocation() != null)
+        {
+            builder.location(item.getLocation());
+        }
+        if (item.getStatus() != null)
+        {
+            builder.status(item.getStatus());
+        }
+        item.getTags().forEach(builder::addTag);
+        return builder;
+    }
+
+    /**
+     * Create a copy of the given item with a different location.
+     *
+     * @param item
+     *            the item to copy
+     * @param location
+     *            the new location
+     * @return a new item
+     */
+    public static SpecificationItem copyWithLocation(final SpecificationItem item,
+            final Location location)
+    {
+        final SpecificationItem.Builder builder = copyWithoutLinks(item).location(location);
+        item.getNeedsArtifactTypes().forEach(builder::addNeedsArtifactType);
+        item.getCoveredIds().forEach(builder::addCoveredId);
+        item.getDependOnIds().forEach(builder::addDependOnId);
+        return builder.build();
+    }
+}
@@ -0,0 +1,75 @@
+package org.itsallcode.openfasttrace.gradle.task.importer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Searches the bytes of a file for the markers that every coverage tag
+ * contains: {@code ->} in tags like {@code [impl->dsn~name~1]} and
+ * {@code [[} in short tags like {@code [[name:1]]}.
+ * <p>
+ * Files without a marker cannot contain tags, so the tag importer does not
+ * need to decode them and run its regular expressions over each line. Small
+ * files are read into a heap buffer, bigger files are memory-mapped.
+ */
+public final class TagMarkerScanner
+{
+    private static final long MAPPING_THRESHOLD_BYTES = 64 * 1024L;
+
+    private TagMarkerScanner()
+    {
+        // Not instantiated
+    }
+
+    /**
+     * Check if the file may contain a tag.
+     *
+     * @param file
+     *            the file to check
+     * @return {@code true} if the file contains a tag marker
+     */
+    public static boolean containsTagMarker(final Path file)
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+            {
+                return true;
+            }
+            if (size < MAPPING_THRESHOLD_BYTES)
+            {
+                final ByteBuffer buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0)
+                {
+                    // Read until the buffer is full
+                }
+                return containsTagMarker(buffer.flip());
+            }
+            return containsTagMarker(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException("Error reading file " + file, e);
+        }
+    }
+
+    static boolean containsTagMarker(final ByteBuffer buffer)
+    {
+        byte previous = 0;
+        for (int i = buffer.position(); i < buffer.limit(); i++)
+        {
+            final byte current = buffer.get(i);
+            if ((previous == '-' && current == '>') || (previous == '[' && current == '['))
+            {
+                return true;
+            }
+            previous = current;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,202 @@
+package org.itsallcode.openfasttrace.gradle.task.linker;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.gradle.api.logging.Logging;
+import org.itsallcode.openfasttrace.api.core.*;
+import org.itsallcode.openfasttrace.core.Oft;
+import org.slf4j.Logger;
+
+/**
+ * Links and traces specification items and reuses the linked items of parts of
+ * the trace graph that were already linked by an earlier call.
+ * <p>
+ * Items can only be linked to items with the same artifact type and name that
+ * they refer to or that refer to them. The items are split into connected
+ * components of this relation, so linking each component separately gives the
+ * same result as linking all items at once. Coverage of an item only depends
+ * on the items of its component, so the defects of a component are found once
+ * when it is linked.
+ * <p>
+ * Components are identified by the content of their items, so a component is
+ * reused even if its items are copies, e.g. when views filter the imported
+ * items by artifact type. The key contains every attribute that linking or the
+ * reports use, including the origin, so items with equal content but different
+ * origins are not confused. The linker keeps all components it linked in
+ * memory, so it is meant to be used for one trace and then dropped; results
+ * are not kept between builds.
+ */
+public class IncrementalLinker
+{
+    private static final Logger LOG = Logging.getLogger(IncrementalLinker.class);
+
+    private final Map<ComponentKey, LinkedComponent> linkedComponents = new ConcurrentHashMap<>();
+
+    /**
+     * Link and trace the given items.
+     *
+     * @param oft
+     *            the engine used for linking new components
+     * @param items
+     *            the items to link
+     * @return the linked items and defects
+     */
+    public Result link(final Oft oft, final List<SpecificationItem> items)
+    {
+        final Collection<List<SpecificationItem>> components = splitComponents(items);
+        final List<LinkedSpecificationItem> linkedItems = new ArrayList<>(items.size());
+        final List<LinkedSpecificationItem> defectItems = new ArrayList<>();
+        int linkedComponentCount = 0;
+        for (final List<SpecificationItem> component : components)
+        {
+            final ComponentKey key = ComponentKey.of(component);
+            LinkedComponent linkedComponent = linkedComponents.get(key);
+            if (linkedComponent == null)
+            {
+                // Link outside of the map, so that views linking in parallel do
+                // not wait for each other. Concurrent views may link the same
+                // component twice, the result is the same.
+                final LinkedComponent newComponent = LinkedComponent.link(oft, component);
+                final LinkedComponent existingComponent = linkedComponents.putIfAbsent(key,
+                        newComponent);
+                linkedComponent = existingComponent != null ? existingComponent : newComponent;
+                linkedComponentCount++;
+            }
+            linkedItems.addAll(linkedComponent.items());
+            defectItems.addAll(linkedComponent.defectItems());
+        }
+        final int reusedComponentCount = components.size() - linkedComponentCount;
+        LOG.info("Linked {} of {} components, reused {} components", linkedComponentCount,
+                components.size(), reusedComponentCount);
+        return new Result(linkedItems, defectItems, components.size(), reusedComponentCount);
+    }
+
+    private static Collection<List<SpecificationItem>> splitComponents(
+            final List<SpecificationItem> items)
+    {
+        final UnionFind components = new UnionFind();
+        for (final SpecificationItem item : items)
+        {
+            final String key = key(item.getId());
+            components.add(key);
+            item.getCoveredIds().forEach(id -> components.union(key, key(id)));
+            item.getDependOnIds().forEach(id -> components.union(key, key(id)));
+        }
+        final Map<String, List<SpecificationItem>> itemsByComponent = new LinkedHashMap<>();
+        for (final SpecificationItem item : items)
+        {
+            itemsByComponent
+                    .computeIfAbsent(components.find(key(item.getId())), k -> new ArrayList<>())
+                    .add(item);
+        }
+        return itemsByComponent.values();
+    }
+
+    // Links to other revisions are reported as outdated or predated, so the
+    // revision is not part of the key
+    private static String key(final SpecificationItemId id)
+    {
+        return id.getArtifactType() + "~" + id.getName();
+    }
+
+    /**
+     * Result of linking and tracing items.
+     *
+     * @param items
+     *            the linked items
+     * @param defectItems
+     *            the linked items with defects
+     * @param componentCount
+     *            number of components of the items
+     * @param reusedComponentCount
+     *            number of components reused from earlier calls
+     */
+    public record Result(List<LinkedSpecificationItem> items,
+            List<LinkedSpecificationItem> defectItems, int componentCount,
+            int reusedComponentCount)
+    {
+        /**
+         * @return the trace of the linked items
+         */
+        public Trace toTrace()
+        {
+            return Trace.builder().items(items).defectItems(defectItems).build();
+        }
+    }
+
+    private record LinkedComponent(List<LinkedSpecificationItem> items,
+            List<LinkedSpecificationItem> defectItems)
+    {
+        static LinkedComponent link(final Oft oft, final List<SpecificationItem> component)
+        {
+            final List<LinkedSpecificationItem> linkedItems = oft.link(component);
+            return new LinkedComponent(linkedItems,
+                    linkedItems.stream().filter(LinkedSpecificationItem::isDefect).toList());
+        }
+    }
+
+    private record ComponentKey(List<ItemKey> items)
+    {
+        static ComponentKey of(final List<SpecificationItem> component)
+        {
+            return new ComponentKey(component.stream().map(ItemKey::of).toList());
+        }
+    }
+
+    private record ItemKey(SpecificationItemId id, String title, String description,
+            String rationale, String comment, ItemStatus status, boolean forwarding,
+            String path, int line, List<String> needsArtifactTypes,
+            List<SpecificationItemId> coveredIds, List<SpecificationItemId> dependOnIds,
+            List<String> tags)
+    {
+        static ItemKey of(final SpecificationItem item)
+        {
+            final Location location = item.getLocation();
+            return new ItemKey(item.getId(), item.getTitle(), item.getDescription(),
+                    item.getRationale(), item.getComment(), item.getStatus(),
+                    item.isForwarding(), location == null ? null : location.getPath(),
+                    location == null ? 0 : location.getLine(),
+                    List.copyOf(item.getNeedsArtifactTypes()), List.copyOf(item.getCoveredIds()),
+                    List.copyOf(item.getDependOnIds()), List.copyOf(item.getTags()));
+        }
+    }
+
+    private static class UnionFind
+    {
+        private final Map<String, String> parents = new HashMap<>();
+
+        void add(final String key)
+        {
+            parents.putIfAbsent(key, key);
+        }
+
+        String find(final String key)
+        {
+            add(key);
+            String root = key;
+            while (!root.equals(parents.get(root)))
+            {
+                root = parents.get(root);
+            }
+            String current = key;
+            while (!current.equals(root))
+            {
+                final String next = parents.get(current);
+                parents.put(current, root);
+                current = next;
+            }
+            return root;
+        }
+
+        void union(final String first, final String second)
+        {
+            final String firstRoot = find(first);
+            final String secondRoot = find(second);
+            if (!firstRoot.equals(secondRoot))
+            {
+                parents.put(secondRoot, firstRoot);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.itsallcode.openfasttrace.gradle.task.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * Java Flight Recorder event for importing a single file.
+ */
+@Name("org.itsallcode.openfasttrace.ImportFile")
+@Label("Import File")
+@Category("OpenFastTrace")
+@Description("Import of a single file by OpenFastTrace")
+public class ImportFileEvent extends Event
+{
+    @Label("Path")
+    public String path;
+
+    @Label("Importer")
+    public String importer;
+
+    @Label("Item Count")
+    public int itemCount;
+}
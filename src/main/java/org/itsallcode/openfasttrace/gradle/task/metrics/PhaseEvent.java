@@ -0,0 +1,20 @@
+package org.itsallcode.openfasttrace.gradle.task.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * Java Flight Recorder event for a phase of a task, e.g. link, trace or
+ * report.
+ */
+@Name("org.itsallcode.openfasttrace.Phase")
+@Label("Phase")
+@Category("OpenFastTrace")
+@Description("Phase of an OpenFastTrace task")
+public class PhaseEvent extends Event
+{
+    @Label("Task")
+    public String task;
+
+    @Label("Phase")
+    public String phase;
+}
@@ -0,0 +1,296 @@
+package org.itsallcode.openfasttrace.gradle.task.metrics;
+
+import java.io.*;
+import java.lang.management.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.management.*;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * Records wall and CPU time per phase, counters and the peak heap usage of a
+ * task and writes them as JSON.
+ * <p>
+ * The CPU time of a phase is the CPU time of the thread that runs it. Work the
+ * phase hands over to other threads is not included, those threads record
+ * their own phases. Phases with the same name are added up. All methods are
+ * thread-safe.
+ * <p>
+ * Used heap only grows between garbage collections, so its peak is the
+ * largest total of the heap pools before a garbage collection or at the end
+ * of a phase. The peak usage of the pools is not used, as it is shared with
+ * all other users of the JVM and the peaks of the pools are reached at
+ * different times.
+ * <p>
+ * Each measured phase is also emitted as a {@link PhaseEvent} to Java Flight
+ * Recorder.
+ */
+public class TaskMetrics implements AutoCloseable
+{
+    private final String taskName;
+    private final Map<String, Phase> phases = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final AtomicLong peakHeapBytes = new AtomicLong();
+    private final NotificationListener gcListener = this::handleGcNotification;
+    private final List<NotificationEmitter> gcEmitters = new ArrayList<>();
+
+    /**
+     * Create new metrics and start recording the heap usage before garbage
+     * collections.
+     *
+     * @param taskName
+     *            name of the measured task
+     */
+    @SuppressWarnings("this-escape")
+    public TaskMetrics(final String taskName)
+    {
+        this.taskName = taskName;
+        recordHeapUsage();
+        for (final GarbageCollectorMXBean collector : ManagementFactory
+                .getGarbageCollectorMXBeans())
+        {
+            if (collector instanceof final NotificationEmitter emitter)
+            {
+                emitter.addNotificationListener(gcListener, null, null);
+                gcEmitters.add(emitter);
+            }
+        }
+    }
+
+    /**
+     * Run and measure a phase.
+     *
+     * @param <T>
+     *            result type of the phase
+     * @param name
+     *            name of the phase
+     * @param action
+     *            the phase
+     * @return the result of the phase
+     */
+    public <T> T phase(final String name, final Supplier<T> action)
+    {
+        final PhaseEvent event = new PhaseEvent();
+        event.begin();
+        final long startWall = System.nanoTime();
+        final long startCpu = getCurrentThreadCpuTime();
+        try
+        {
+            return action.get();
+        }
+        finally
+        {
+            addPhase(name, System.nanoTime() - startWall, getCurrentThreadCpuTime() - startCpu);
+            recordHeapUsage();
+            if (event.shouldCommit())
+            {
+                event.task = taskName;
+                event.phase = name;
+                event.commit();
+            }
+        }
+    }
+
+    public void phase(final String name, final Runnable action)
+    {
+        phase(name, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Add the time of a phase measured by the caller.
+     *
+     * @param name
+     *            name of the phase
+     * @param wallNanos
+     *            wall time in nanoseconds
+     * @param cpuNanos
+     *            CPU time in nanoseconds
+     */
+    public void addPhase(final String name, final long wallNanos, final long cpuNanos)
+    {
+        final Phase phase = phases.computeIfAbsent(name, key -> new Phase());
+        phase.wallNanos.add(wallNanos);
+        phase.cpuNanos.add(cpuNanos);
+    }
+
+    public void count(final String name, final long value)
+    {
+        counters.computeIfAbsent(name, key -> new LongAdder()).add(value);
+    }
+
+    /**
+     * @return peak heap usage of the JVM in bytes since the metrics were
+     *         created
+     */
+    public long getPeakHeapBytes()
+    {
+        recordHeapUsage();
+        return peakHeapBytes.get();
+    }
+
+    /**
+     * Stop recording the heap usage before garbage collections.
+     */
+    @Override
+    public void close()
+    {
+        for (final NotificationEmitter emitter : gcEmitters)
+        {
+            try
+            {
+                emitter.removeNotificationListener(gcListener);
+            }
+            catch (final ListenerNotFoundException e)
+            {
+                // Already removed
+            }
+        }
+        gcEmitters.clear();
+    }
+
+    /**
+     * Write the metrics to a JSON file.
+     *
+     * @param file
+     *            the output file
+     */
+    public void write(final Path file)
+    {
+        try
+        {
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, toJson(), StandardCharsets.UTF_8);
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException("Error writing metrics to " + file, e);
+        }
+    }
+
+    String toJson()
+    {
+        final StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"task\": ");
+        appendString(json, taskName);
+        json.append(",\n");
+        json.append("  \"phases\": {");
+        String separator = "\n";
+        for (final Map.Entry<String, Phase> phase : new TreeMap<>(phases).entrySet())
+        {
+            json.append(separator).append("    ");
+            appendString(json, phase.getKey());
+            json.append(": { \"wallTimeMillis\": ")
+                    .append(toMillis(phase.getValue().wallNanos.sum()))
+                    .append(", \"cpuTimeMillis\": ")
+                    .append(toMillis(phase.getValue().cpuNanos.sum())).append(" }");
+            separator = ",\n";
+        }
+        json.append("\n  },\n  \"counters\": {");
+        separator = "\n";
+        for (final Map.Entry<String, LongAdder> counter : new TreeMap<>(counters).entrySet())
+        {
+            json.append(separator).append("    ");
+            appendString(json, counter.getKey());
+            json.append(": ").append(counter.getValue().sum());
+            separator = ",\n";
+        }
+        json.append("\n  },\n  \"peakHeapBytes\": ").append(getPeakHeapBytes()).append("\n}\n");
+        return json.toString();
+    }
+
+    private static void appendString(final StringBuilder json, final String value)
+    {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++)
+        {
+            final char c = value.charAt(i);
+            switch (c)
+            {
+            case '"' -> json.append("\\\"");
+            case '\\' -> json.append("\\\\");
+            case '\n' -> json.append("\\n");
+            case '\r' -> json.append("\\r");
+            case '\t' -> json.append("\\t");
+            default ->
+            {
+                if (c < 0x20)
+                {
+                    json.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                }
+                else
+                {
+                    json.append(c);
+                }
+            }
+            }
+        }
+        json.append('"');
+    }
+
+    private static String toMillis(final long nanos)
+    {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    /**
+     * Get the CPU time of the current thread.
+     *
+     * @return CPU time in nanoseconds or {@code 0} if the JVM does not
+     *         measure the CPU time of threads
+     */
+    public static long getCurrentThreadCpuTime()
+    {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!threads.isCurrentThreadCpuTimeSupported() || !threads.isThreadCpuTimeEnabled())
+        {
+            return 0;
+        }
+        return Math.max(0, threads.getCurrentThreadCpuTime());
+    }
+
+    private void recordHeapUsage()
+    {
+        peakHeapBytes.accumulateAndGet(
+                ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(), Math::max);
+    }
+
+    private void handleGcNotification(final Notification notification, final Object handback)
+    {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION
+                .equals(notification.getType()))
+        {
+            return;
+        }
+        final Map<String, MemoryUsage> usageBeforeGc = GarbageCollectionNotificationInfo
+                .from((CompositeData) notification.getUserData()).getGcInfo()
+                .getMemoryUsageBeforeGc();
+        long heapBytes = 0;
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+        {
+            final MemoryUsage usage = usageBeforeGc.get(pool.getName());
+            if (pool.getType() == MemoryType.HEAP && usage != null)
+            {
+                heapBytes += usage.getUsed();
+            }
+        }
+        peakHeapBytes.accumulateAndGet(heapBytes, Math::max);
+    }
+
+    private static class Phase
+    {
+        private final LongAdder wallNanos = new LongAdder();
+        private final LongAdder cpuNanos = new LongAdder();
+    }
+}
@@ -0,0 +1,580 @@
+package org.itsallcode.openfasttrace.gradle.task.worker;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toSet;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiConsumer;
+
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+import org.itsallcode.openfasttrace.api.core.Newline;
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.importer.tag.config.PathConfig;
+import org.itsallcode.openfasttrace.core.*;
+import org.itsallcode.openfasttrace.gradle.service.OftEngineService;
+import org.itsallcode.openfasttrace.gradle.task.cache.BinaryRequirementsFormat;
+import org.itsallcode.openfasttrace.gradle.task.cache.ImportCache;
+import org.itsallcode.openfasttrace.gradle.task.cache.ParsedItemCache;
+import org.itsallcode.openfasttrace.gradle.task.config.SerializableTagPathConfig;
+import org.itsallcode.openfasttrace.gradle.task.exporter.SpecobjectWriter;
+import org.itsallcode.openfasttrace.gradle.task.importer.CachingFileImporter;
+import org.itsallcode.openfasttrace.gradle.task.importer.DuplicateItemFilter;
+import org.itsallcode.openfasttrace.gradle.task.importer.FileImporter;
+import org.itsallcode.openfasttrace.gradle.task.importer.OriginPaths;
+import org.itsallcode.openfasttrace.gradle.task.importer.ParallelFileImporter;
+import org.itsallcode.openfasttrace.gradle.task.metrics.TaskMetrics;
+import org.slf4j.Logger;
+
+/**
+ * Imports changed files into the import cache and exports all cached items to
+ * a specobject file, optionally streaming items file by file.
+ */
+public abstract class CollectRequirementsAction
+        implements WorkAction<CollectRequirementsAction.Parameters>
+{
+    private static final Logger LOG = Logging.getLogger(CollectRequirementsAction.class);
+
+    public interface Parameters extends WorkParameters
+    {
+        /**
+         * @return {@code true} if the import cache from the previous run is
+         *         updated, {@code false} if it is rebuilt from scratch
+         */
+        Property<Boolean> getIncremental();
+
+        ConfigurableFileCollection getFilesToImport();
+
+        ConfigurableFileCollection getRemovedFiles();
+
+        /**
+         * @return specobject files collected by other projects, whose items
+         *         are compared with the input files of this project
+         */
+        ConfigurableFileCollection getRequirementFragments();
+
+        ListProperty<SerializableTagPathConfig> getPathConfig();
+
+        /**
+         * @return directory to which the paths of the tag importer
+         *         configuration are relative
+         */
+        DirectoryProperty getRootDirectory();
+
+        RegularFileProperty getImportCacheFile();
+
+        RegularFileProperty getOutputFile();
+
+        RegularFileProperty getBinaryOutputFile();
+
+        /**
+         * @return {@code true} if items are written to the output files as
+         *         soon as they are imported instead of collecting them in
+         *         memory first
+         */
+        Property<Boolean> getStreaming();
+
+        Property<Integer> getImportParallelism();
+
+        /**
+         * @return directory to which origins and cached paths are relative or
+         *         no value to keep absolute paths
+         */
+        DirectoryProperty getOriginBaseDirectory();
+
+        /**
+         * @return the shared engine or no value if the worker runs isolated
+         *         from the Gradle daemon
+         */
+        Property<OftEngineService> getEngineService();
+
+        /**
+         * @return file to which the metrics are written or no value to skip
+         *         writing metrics
+         */
+        RegularFileProperty getMetricsFile();
+
+        /**
+         * @return wall time in nanoseconds of finding the files to import in
+         *         the task
+         */
+        Property<Long> getFileDiscoveryWallNanos();
+
+        /**
+         * @return CPU time in nanoseconds of finding the files to import in the
+         *         task
+         */
+        Property<Long> getFileDiscoveryCpuNanos();
+
+        /**
+         * @return manifest of the normalized inputs or no value if inputs are
+         *         not normalized
+         */
+        RegularFileProperty getNormalizedInputsFile();
+
+        /**
+         * @return file to which the manifest of the normalized inputs is
+         *         copied after a successful import
+         */
+        RegularFileProperty getCollectedInputsFile();
+    }
+
+    @Override
+    public void execute()
+    {
+        try (TaskMetrics metrics = new TaskMetrics("collectRequirements"))
+        {
+            collectRequirements(metrics);
+        }
+    }
+
+    private void collectRequirements(final TaskMetrics metrics)
+    {
+        final Parameters parameters = getParameters();
+        metrics.addPhase("fileDiscovery", parameters.getFileDiscoveryWallNanos().getOrElse(0L),
+                parameters.getFileDiscoveryCpuNanos().getOrElse(0L));
+        final Oft oft = Engines.getOft(parameters.getEngineService());
+        final List<Path> filesToImport = parameters.getFilesToImport().getFiles().stream()
+                .map(File::toPath).toList();
+        final int parallelism = parameters.getImportParallelism().getOrElse(1);
+        LOG.info("Importing {} files using {} threads", filesToImport.size(), parallelism);
+        final FileImporter fileImporter = createFileImporter(oft, parameters.getEngineService());
+        final ParallelFileImporter importer = new ParallelFileImporter(fileImporter, parallelism,
+                metrics);
+        final DuplicateItemFilter duplicateFilter = createDuplicateFilter();
+        if (parameters.getStreaming().getOrElse(false))
+        {
+            collectStreaming(importer, duplicateFilter, filesToImport, parallelism, metrics);
+        }
+        else
+        {
+            collect(oft, importer, duplicateFilter, filesToImport, metrics);
+        }
+        if (duplicateFilter.getDuplicates() > 0)
+        {
+            LOG.info("Skipped {} spec items imported more than once from the same location",
+                    duplicateFilter.getDuplicates());
+        }
+        metrics.count("duplicateItems", duplicateFilter.getDuplicates());
+        LOG.info("Tag marker prefilter: {} files skipped, {} files scanned",
+                fileImporter.getTagPrefilterSkipped(), fileImporter.getTagPrefilterScanned());
+        metrics.count("tagPrefilterSkipped", fileImporter.getTagPrefilterSkipped());
+        metrics.count("tagPrefilterScanned", fileImporter.getTagPrefilterScanned());
+        if (fileImporter instanceof final CachingFileImporter cachingImporter)
+        {
+            LOG.info("Parsed item cache: {} hits, {} misses", cachingImporter.getHits(),
+                    cachingImporter.getMisses());
+        }
+        if (parameters.getNormalizedInputsFile().isPresent())
+        {
+            copyFile(parameters.getNormalizedInputsFile().getAsFile().get().toPath(),
+                    parameters.getCollectedInputsFile().getAsFile().get().toPath());
+        }
+        if (parameters.getMetricsFile().isPresent())
+        {
+            metrics.write(parameters.getMetricsFile().getAsFile().get().toPath());
+        }
+    }
+
+    private void collect(final Oft oft, final ParallelFileImporter importer,
+            final DuplicateItemFilter duplicateFilter, final List<Path> filesToImport,
+            final TaskMetrics metrics)
+    {
+        final Parameters parameters = getParameters();
+        final Path cacheFile = getImportCacheFile();
+        final ImportCache cache = parameters.getIncremental().get()
+                ? ImportCache.read(cacheFile).orElseThrow(() -> new IllegalStateException(
+                        "Error reading import cache " + cacheFile + ", run a clean build"))
+                : ImportCache.empty();
+        final OriginPaths originPaths = getOriginPaths();
+        for (final File file : parameters.getRemovedFiles())
+        {
+            cache.remove(originPaths.convert(file.toPath()));
+        }
+        metrics.phase("import", () -> importer.importFiles(filesToImport)
+                .forEach((file, items) -> cache.put(originPaths.convert(file),
+                        originPaths.convertOrigins(items))));
+
+        final List<SpecificationItem> importedItems = getDistinctItems(cache, duplicateFilter);
+        final Path output = getOutputFile();
+        LOG.info("Imported {} spec items from {} files ({} files re-imported), writing to {}",
+                importedItems.size(), cache.getFileCount(),
+                filesToImport.size(), output);
+        metrics.count("items", importedItems.size());
+        metrics.count("files", cache.getFileCount());
+        metrics.phase("export", () -> {
+            cache.write(cacheFile);
+            oft.exportToPath(importedItems, output, getExportSettings());
+            if (parameters.getBinaryOutputFile().isPresent())
+            {
+                final Path binaryOutput = parameters.getBinaryOutputFile().getAsFile().get()
+                        .toPath();
+                LOG.info("Writing binary requirements file {}", binaryOutput);
+                BinaryRequirementsFormat.write(binaryOutput, importedItems);
+            }
+        });
+    }
+
+    private DuplicateItemFilter createDuplicateFilter()
+    {
+        final OriginPaths originPaths = getOriginPaths();
+        return new DuplicateItemFilter(getParameters().getRequirementFragments().getAsFileTree()
+                .getFiles().stream().map(file -> originPaths.convert(file.toPath()))
+                .collect(toSet()));
+    }
+
+    /**
+     * Get the items of all input files followed by the items of all
+     * requirement fragments without duplicates.
+     */
+    private static List<SpecificationItem> getDistinctItems(final ImportCache cache,
+            final DuplicateItemFilter duplicateFilter)
+    {
+        final List<SpecificationItem> items = new ArrayList<>();
+        final List<String> fragments = new ArrayList<>();
+        for (final Map.Entry<String, List<SpecificationItem>> entry : cache.getItemsByFile()
+                .entrySet())
+        {
+            if (duplicateFilter.isFragment(entry.getKey()))
+            {
+                fragments.add(entry.getKey());
+            }
+            else
+            {
+                items.addAll(duplicateFilter.filter(entry.getKey(), entry.getValue()));
+            }
+        }
+        for (final String fragment : fragments)
+        {
+            items.addAll(duplicateFilter.filter(fragment, cache.getItemsByFile().get(fragment)));
+        }
+        return items;
+    }
+
+    /**
+     * Imports at most {@code parallelism} files at a time and writes their
+     * items to the outputs right away. All batches share one thread pool.
+     * Requirement fragments are buffered in a temporary file and written to
+     * the outputs after all input files, see {@link DuplicateItemFilter}. Items of unchanged files are copied
+     * from the previous import cache entry by entry. Both the cache and the new
+     * files are processed sorted by path, so the new cache has the same
+     * content as the one written by
+     * {@link #collect(Oft, ParallelFileImporter, DuplicateItemFilter, List, TaskMetrics)}.
+     */
+    private void collectStreaming(final ParallelFileImporter importer,
+            final DuplicateItemFilter duplicateFilter, final List<Path> filesToImport,
+            final int parallelism, final TaskMetrics metrics)
+    {
+        final Parameters parameters = getParameters();
+        final Path cacheFile = getImportCacheFile();
+        final Path newCacheFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".new");
+        final Path fragmentsFile = cacheFile
+                .resolveSibling(cacheFile.getFileName() + ".fragments");
+        final Path output = getOutputFile();
+        final OriginPaths originPaths = getOriginPaths();
+        final Set<String> removedFiles = parameters.getRemovedFiles().getFiles().stream()
+                .map(file -> originPaths.convert(file.toPath())).collect(toSet());
+        final List<Path> sortedFiles = filesToImport.stream()
+                .sorted(Comparator.comparing(originPaths::convert)).toList();
+        final StreamingOutput streamingOutput;
+        final ExecutorService executor = importer.createExecutor();
+        try (ImportCache.EntryReader previousCache = parameters.getIncremental().get()
+                ? ImportCache.EntryReader.open(cacheFile)
+                : null;
+                ImportCache.EntryWriter cacheWriter = ImportCache.EntryWriter.create(newCacheFile);
+                SpecobjectWriter specobjectWriter = SpecobjectWriter.create(output);
+                BinaryRequirementsFormat.Writer binaryWriter = createBinaryWriter();
+                FragmentBuffer fragmentBuffer = FragmentBuffer.create(fragmentsFile))
+        {
+            streamingOutput = new StreamingOutput(cacheWriter, specobjectWriter, binaryWriter,
+                    fragmentBuffer, duplicateFilter, metrics);
+            Map.Entry<String, List<SpecificationItem>> previousEntry = readEntry(previousCache);
+            for (int start = 0; start < sortedFiles.size(); start += parallelism)
+            {
+                final List<Path> batch = sortedFiles.subList(start,
+                        Math.min(sortedFiles.size(), start + parallelism));
+                final Map<Path, List<SpecificationItem>> imported = metrics.phase("import",
+                        () -> importer.importFiles(batch, executor));
+                for (final Path file : batch)
+                {
+                    final String path = originPaths.convert(file);
+                    while (previousEntry != null && previousEntry.getKey().compareTo(path) <= 0)
+                    {
+                        if (!previousEntry.getKey().equals(path)
+                                && !removedFiles.contains(previousEntry.getKey()))
+                        {
+                            streamingOutput.write(previousEntry.getKey(), previousEntry.getValue());
+                        }
+                        previousEntry = readEntry(previousCache);
+                    }
+                    streamingOutput.write(path, originPaths.convertOrigins(imported.get(file)));
+                }
+            }
+            while (previousEntry != null)
+            {
+                if (!removedFiles.contains(previousEntry.getKey()))
+                {
+                    streamingOutput.write(previousEntry.getKey(), previousEntry.getValue());
+                }
+                previousEntry = readEntry(previousCache);
+            }
+            streamingOutput.writeFragments();
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        moveFile(newCacheFile, cacheFile);
+        metrics.count("items", streamingOutput.itemCount);
+        metrics.count("files", streamingOutput.fileCount);
+        LOG.info("Streamed {} spec items from {} files ({} files re-imported) to {}",
+                streamingOutput.itemCount, streamingOutput.fileCount, filesToImport.size(),
+                output);
+    }
+
+    private static Map.Entry<String, List<SpecificationItem>> readEntry(
+            final ImportCache.EntryReader reader)
+    {
+        return reader == null ? null : reader.read();
+    }
+
+    private BinaryRequirementsFormat.Writer createBinaryWriter()
+    {
+        final RegularFileProperty binaryOutputFile = getParameters().getBinaryOutputFile();
+        if (!binaryOutputFile.isPresent())
+        {
+            return null;
+        }
+        return BinaryRequirementsFormat.Writer.create(binaryOutputFile.getAsFile().get().toPath());
+    }
+
+    private static void moveFile(final Path source, final Path target)
+    {
+        try
+        {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException("Error moving " + source + " to " + target, e);
+        }
+    }
+
+    private static void copyFile(final Path source, final Path target)
+    {
+        try
+        {
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException("Error copying " + source + " to " + target, e);
+        }
+    }
+
+    private FileImporter createFileImporter(final Oft oft,
+            final Property<OftEngineService> engineService)
+    {
+        final Optional<ParsedItemCache> itemCache = engineService.isPresent()
+                ? engineService.get().getItemCache()
+                : Optional.empty();
+        if (itemCache.isEmpty())
+        {
+            return Engines.createFileImporter(oft, getPathConfig(), engineService);
+        }
+        return new CachingFileImporter(oft, getPathConfig(),
+                engineService.get().createImporterFactories(), itemCache.get(),
+                getPathConfigFingerprint());
+    }
+
+    private String getPathConfigFingerprint()
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes))
+        {
+            output.writeObject(new ArrayList<>(getParameters().getPathConfig().get()));
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException("Error serializing path configuration", e);
+        }
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    private OriginPaths getOriginPaths()
+    {
+        final DirectoryProperty baseDirectory = getParameters().getOriginBaseDirectory();
+        return baseDirectory.isPresent()
+                ? OriginPaths.relativeTo(baseDirectory.getAsFile().get().toPath())
+                : OriginPaths.absolute();
+    }
+
+    private Path getImportCacheFile()
+    {
+        return getParameters().getImportCacheFile().getAsFile().get().toPath();
+    }
+
+    private Path getOutputFile()
+    {
+        return getParameters().getOutputFile().getAsFile().get().toPath();
+    }
+
+    private static ExportSettings getExportSettings()
+    {
+        return ExportSettings.builder() //
+                .outputFormat("specobject") //
+                .newline(Newline.UNIX) //
+                .build();
+    }
+
+    private List<PathConfig> getPathConfig()
+    {
+        final List<PathConfig> paths = getParameters().getPathConfig().get().stream()
+                .flatMap(config -> config
+                        .getPathConfig(getParameters().getRootDirectory().getAsFile().get()))
+                .toList();
+        if (LOG.isInfoEnabled())
+        {
+            LOG.info("Got {} path configurations:\n{}", paths.size(), paths.stream()
+                    .map(CollectRequirementsAction::formatPathConfig).collect(joining("\n")));
+        }
+        return paths;
+    }
+
+    private static String formatPathConfig(final PathConfig config)
+    {
+        return " - " + config.getDescription() + " (type " + config.getTagArtifactType()
+                + "): covers '" + config.getCoveredItemArtifactType() + "', prefix: '"
+                + config.getCoveredItemNamePrefix() + "'";
+    }
+
+    private static class StreamingOutput
+    {
+        private final ImportCache.EntryWriter cacheWriter;
+        private final SpecobjectWriter specobjectWriter;
+        private final BinaryRequirementsFormat.Writer binaryWriter;
+        private final FragmentBuffer fragmentBuffer;
+        private final DuplicateItemFilter duplicateFilter;
+        private final TaskMetrics metrics;
+        private int fileCount = 0;
+        private int itemCount = 0;
+
+        StreamingOutput(final ImportCache.EntryWriter cacheWriter,
+                final SpecobjectWriter specobjectWriter,
+                final BinaryRequirementsFormat.Writer binaryWriter,
+                final FragmentBuffer fragmentBuffer, final DuplicateItemFilter duplicateFilter,
+                final TaskMetrics metrics)
+        {
+            this.cacheWriter = cacheWriter;
+            this.specobjectWriter = specobjectWriter;
+            this.binaryWriter = binaryWriter;
+            this.fragmentBuffer = fragmentBuffer;
+            this.duplicateFilter = duplicateFilter;
+            this.metrics = metrics;
+        }
+
+        void write(final String file, final List<SpecificationItem> items)
+        {
+            // The cache keeps all items of the file, duplicates are only
+            // dropped from the outputs
+            metrics.phase("export", () -> cacheWriter.write(file, items));
+            fileCount++;
+            if (duplicateFilter.isFragment(file))
+            {
+                metrics.phase("export", () -> fragmentBuffer.write(file, items));
+            }
+            else
+            {
+                writeOutputs(file, items);
+            }
+        }
+
+        void writeFragments()
+        {
+            fragmentBuffer.readAll(this::writeOutputs);
+        }
+
+        private void writeOutputs(final String file, final List<SpecificationItem> items)
+        {
+            final List<SpecificationItem> distinctItems = duplicateFilter.filter(file, items);
+            metrics.phase("export", () -> {
+                specobjectWriter.write(distinctItems);
+                if (binaryWriter != null)
+                {
+                    binaryWriter.write(distinctItems);
+                }
+            });
+            itemCount += distinctItems.size();
+        }
+    }
+
+    /**
+     * Temporary file with the items of the requirement fragments, which are
+     * written to the outputs after the items of all input files.
+     */
+    private static final class FragmentBuffer implements Closeable
+    {
+        private final Path file;
+        private ImportCache.EntryWriter writer;
+
+        private FragmentBuffer(final Path file, final ImportCache.EntryWriter writer)
+        {
+            this.file = file;
+            this.writer = writer;
+        }
+
+        static FragmentBuffer create(final Path file)
+        {
+            return new FragmentBuffer(file, ImportCache.EntryWriter.create(file));
+        }
+
+        void write(final String fragment, final List<SpecificationItem> items)
+        {
+            writer.write(fragment, items);
+        }
+
+        /**
+         * Finish writing and pass all buffered fragments to the given
+         * consumer.
+         */
+        void readAll(final BiConsumer<String, List<SpecificationItem>> consumer)
+        {
+            writer.close();
+            writer = null;
+            try (ImportCache.EntryReader reader = ImportCache.EntryReader.open(file))
+            {
+                Map.Entry<String, List<SpecificationItem>> entry;
+                while ((entry = reader.read()) != null)
+                {
+                    consumer.accept(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            if (writer != null)
+            {
+                writer.close();
+            }
+            try
+            {
+                Files.deleteIfExists(file);
+            }
+            catch (final IOException e)
+            {
+                throw new UncheckedIOException("Error deleting " + file, e);
+            }
+        }
+    }
+}
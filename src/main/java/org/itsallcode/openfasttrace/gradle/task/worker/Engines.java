@@ -0,0 +1,62 @@
+package org.itsallcode.openfasttrace.gradle.task.worker;
+
+import java.util.List;
+
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Property;
+import org.itsallcode.openfasttrace.api.importer.tag.config.PathConfig;
+import org.itsallcode.openfasttrace.core.Oft;
+import org.itsallcode.openfasttrace.core.OftRunner;
+import org.itsallcode.openfasttrace.gradle.service.OftEngineService;
+import org.itsallcode.openfasttrace.gradle.task.importer.FileImporter;
+import org.slf4j.Logger;
+
+final class Engines
+{
+    private static final Logger LOG = Logging.getLogger(Engines.class);
+
+    private Engines()
+    {
+        // Not instantiable
+    }
+
+    /**
+     * Get the shared engine if available or create a new one.
+     *
+     * @param engineService
+     *            the engine service parameter of a worker
+     * @return the engine
+     */
+    static Oft getOft(final Property<OftEngineService> engineService)
+    {
+        if (engineService.isPresent())
+        {
+            LOG.info("Using shared OpenFastTrace engine");
+            return engineService.get().getOft();
+        }
+        return new OftRunner();
+    }
+
+    /**
+     * Create a file importer using the importer plugins discovered by the
+     * shared engine if available.
+     *
+     * @param oft
+     *            the engine
+     * @param pathConfigs
+     *            tag importer path configurations
+     * @param engineService
+     *            the engine service parameter of a worker
+     * @return the file importer
+     */
+    static FileImporter createFileImporter(final Oft oft, final List<PathConfig> pathConfigs,
+            final Property<OftEngineService> engineService)
+    {
+        if (engineService.isPresent())
+        {
+            return new FileImporter(oft, pathConfigs,
+                    engineService.get().createImporterFactories());
+        }
+        return new FileImporter(oft, pathConfigs);
+    }
+}
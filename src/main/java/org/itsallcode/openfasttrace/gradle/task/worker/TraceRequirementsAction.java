@@ -0,0 +1,346 @@
+package org.itsallcode.openfasttrace.gradle.task.worker;
+
+import static java.util.Collections.emptySet;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.provider.SetProperty;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+import org.itsallcode.openfasttrace.api.*;
+import org.itsallcode.openfasttrace.api.core.*;
+import org.itsallcode.openfasttrace.api.report.ReportVerbosity;
+import org.itsallcode.openfasttrace.core.Oft;
+import org.itsallcode.openfasttrace.gradle.service.OftEngineService;
+import org.itsallcode.openfasttrace.gradle.task.cache.BinaryRequirementsFormat;
+import org.itsallcode.openfasttrace.gradle.task.config.SerializableReportConfig;
+import org.itsallcode.openfasttrace.gradle.task.config.SerializableViewConfig;
+import org.itsallcode.openfasttrace.gradle.task.exporter.ParallelReportWriter;
+import org.itsallcode.openfasttrace.gradle.task.exporter.ParallelReportWriter.Report;
+import org.itsallcode.openfasttrace.gradle.task.importer.FileImporter;
+import org.itsallcode.openfasttrace.gradle.task.importer.ItemFilter;
+import org.itsallcode.openfasttrace.gradle.task.importer.OriginPaths;
+import org.itsallcode.openfasttrace.gradle.task.importer.ParallelFileImporter;
+import org.itsallcode.openfasttrace.gradle.task.linker.IncrementalLinker;
+import org.itsallcode.openfasttrace.gradle.task.metrics.ImportFileEvent;
+import org.itsallcode.openfasttrace.gradle.task.metrics.TaskMetrics;
+import org.slf4j.Logger;
+
+/**
+ * Imports requirements once, then links and traces them and writes the
+ * tracing reports for the complete project and each configured view.
+ */
+public abstract class TraceRequirementsAction
+        implements WorkAction<TraceRequirementsAction.Parameters>
+{
+    private static final Logger LOG = Logging.getLogger(TraceRequirementsAction.class);
+
+    public interface Parameters extends WorkParameters
+    {
+        ConfigurableFileCollection getImportFiles();
+
+        RegularFileProperty getOutputFile();
+
+        Property<ReportVerbosity> getReportVerbosity();
+
+        Property<String> getReportFormat();
+
+        Property<DetailsSectionDisplay> getDetailsSectionDisplay();
+
+        SetProperty<String> getFilteredArtifactTypes();
+
+        SetProperty<String> getFilteredTags();
+
+        Property<Boolean> getFilterAcceptsItemsWithoutTag();
+
+        Property<Boolean> getFailBuild();
+
+        /**
+         * @return reports rendered from the same trace in addition to the
+         *         report in {@link #getOutputFile()}
+         */
+        ListProperty<SerializableReportConfig> getAdditionalReports();
+
+        Property<Integer> getReportParallelism();
+
+        /**
+         * @return views traced from the same imported items with their own
+         *         filter and report
+         */
+        ListProperty<SerializableViewConfig> getViews();
+
+        /**
+         * @return file to which the metrics are written or no value to skip
+         *         writing metrics
+         */
+        RegularFileProperty getMetricsFile();
+
+        /**
+         * @return directory to which origins in the report are relative or no
+         *         value to keep absolute paths
+         */
+        DirectoryProperty getOriginBaseDirectory();
+
+        /**
+         * @return the shared engine or no value if the worker runs isolated
+         *         from the Gradle daemon
+         */
+        Property<OftEngineService> getEngineService();
+    }
+
+    @Override
+    public void execute()
+    {
+        try (TaskMetrics metrics = new TaskMetrics("traceRequirements"))
+        {
+            traceRequirements(metrics);
+        }
+    }
+
+    private void traceRequirements(final TaskMetrics metrics)
+    {
+        final Parameters parameters = getParameters();
+        final Oft oft = Engines.getOft(parameters.getEngineService());
+        final List<SpecificationItem> importedItems = metrics.phase("import",
+                () -> importItems(oft, metrics));
+        metrics.count("items", importedItems.size());
+        final List<TraceView> views = getTraceViews();
+        final List<String> defects = traceViews(oft, importedItems, views, metrics);
+        if (parameters.getMetricsFile().isPresent())
+        {
+            metrics.write(parameters.getMetricsFile().getAsFile().get().toPath());
+        }
+        if (!defects.isEmpty())
+        {
+            final String message = String.join("\n", defects);
+            if (parameters.getFailBuild().getOrElse(true))
+            {
+                throw new IllegalStateException(message);
+            }
+            LOG.warn(message);
+        }
+        else
+        {
+            LOG.info("Requirement tracing completed successfully.");
+        }
+    }
+
+    private List<TraceView> getTraceViews()
+    {
+        final Parameters parameters = getParameters();
+        final Path reportPath = parameters.getOutputFile().getAsFile().get().toPath();
+        final List<Report> reports = new ArrayList<>();
+        reports.add(new Report(reportPath, getReportSettings(parameters.getReportFormat().get(),
+                parameters.getReportVerbosity().get())));
+        for (final SerializableReportConfig report : parameters.getAdditionalReports().get())
+        {
+            reports.add(new Report(report.getFile().toPath(),
+                    getReportSettings(report.getFormat(), report.getVerbosity())));
+        }
+        final List<TraceView> views = new ArrayList<>();
+        views.add(new TraceView("main", null, reports));
+        for (final SerializableViewConfig view : parameters.getViews().get())
+        {
+            final SerializableReportConfig report = view.getReport();
+            views.add(new TraceView(view.getName(), view.getFilterSettings(),
+                    List.of(new Report(report.getFile().toPath(),
+                            getReportSettings(report.getFormat(), report.getVerbosity())))));
+        }
+        return views;
+    }
+
+    /**
+     * Link, trace and report the views concurrently. All threads of the task
+     * are bounded by the report parallelism: if views are traced concurrently,
+     * each view renders its reports one after the other in its own thread.
+     * Otherwise the reports of each view are rendered concurrently.
+     *
+     * @return a message for each view with defects
+     */
+    private List<String> traceViews(final Oft oft, final List<SpecificationItem> items,
+            final List<TraceView> views, final TaskMetrics metrics)
+    {
+        final int parallelism = Math.max(1, getParameters().getReportParallelism().getOrElse(1));
+        // Views share the linked components that all of their items pass
+        final IncrementalLinker linker = new IncrementalLinker();
+        if (parallelism == 1 || views.size() == 1)
+        {
+            final ParallelReportWriter reportWriter = new ParallelReportWriter(oft, parallelism);
+            return views.stream()
+                    .map(view -> traceView(oft, linker, reportWriter, items, view, metrics))
+                    .flatMap(Optional::stream).toList();
+        }
+        final ParallelReportWriter sequentialReportWriter = new ParallelReportWriter(oft, 1);
+        final ExecutorService executor = Executors
+                .newFixedThreadPool(Math.min(parallelism, views.size()));
+        try
+        {
+            final List<Future<Optional<String>>> results = executor.invokeAll(views.stream()
+                    .<Callable<Optional<String>>> map(
+                            view -> () -> traceView(oft, linker, sequentialReportWriter, items,
+                                    view, metrics))
+                    .toList());
+            final List<String> defects = new ArrayList<>();
+            for (final Future<Optional<String>> result : results)
+            {
+                getResult(result).ifPresent(defects::add);
+            }
+            return defects;
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while tracing views", e);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private Optional<String> traceView(final Oft oft, final IncrementalLinker linker,
+            final ParallelReportWriter reportWriter, final List<SpecificationItem> items,
+            final TraceView view, final TaskMetrics metrics)
+    {
+        final Path reportPath = view.reports().get(0).path();
+        final List<SpecificationItem> viewItems = view.filterSettings() == null ? items
+                : new ItemFilter(view.filterSettings()).filter(items);
+        final IncrementalLinker.Result linkResult = metrics.phase("link",
+                () -> linker.link(oft, viewItems));
+        metrics.count("reusedComponents." + view.name(), linkResult.reusedComponentCount());
+        final Trace trace = metrics.phase("trace", linkResult::toTrace);
+        LOG.info("Tracing result of view '{}': {} total items, {} defects. Writing report to {}",
+                view.name(), trace.count(), trace.countDefects(), reportPath);
+        metrics.count("defects." + view.name(), trace.countDefects());
+        metrics.phase("report", () -> reportWriter.write(trace, view.reports()));
+        if (trace.countDefects() > 0)
+        {
+            return Optional.of("Requirement tracing found " + trace.countDefects()
+                    + " defects. See report at " + reportPath + " for details.");
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<String> getResult(final Future<Optional<String>> result)
+    {
+        try
+        {
+            return result.get();
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while tracing views", e);
+        }
+        catch (final ExecutionException e)
+        {
+            if (e.getCause() instanceof final RuntimeException runtimeException)
+            {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Error tracing view", e.getCause());
+        }
+    }
+
+    private ReportSettings getReportSettings(final String format,
+            final ReportVerbosity verbosity)
+    {
+        final Parameters parameters = getParameters();
+        LOG.info("Report settings: verbosity={}, format={}, detailsSectionDisplay={}", verbosity,
+                format, parameters.getDetailsSectionDisplay().get());
+        return ReportSettings.builder() //
+                .verbosity(verbosity) //
+                .outputFormat(format) //
+                .showOrigin(true) //
+                .newline(Newline.UNIX) //
+                .detailsSectionDisplay(parameters.getDetailsSectionDisplay().get()) //
+                .build();
+    }
+
+    /**
+     * Import all files with the importer plugins of the shared engine. Each
+     * file is recorded as an {@link ImportFileEvent}, the items of binary
+     * files follow the items of all other files.
+     */
+    private List<SpecificationItem> importItems(final Oft oft, final TaskMetrics metrics)
+    {
+        final ItemFilter filter = new ItemFilter(getFilterSettings());
+        final FileImporter fileImporter = Engines.createFileImporter(oft, List.of(),
+                getParameters().getEngineService());
+        final List<Path> files = getParameters().getImportFiles().getFiles().stream()
+                .map(File::toPath).toList();
+        for (final Path file : files)
+        {
+            if (!fileImporter.supportsFile(file))
+            {
+                throw new IllegalStateException("Found no importer for requirements file " + file);
+            }
+        }
+        final Map<Path, List<SpecificationItem>> itemsByFile = new ParallelFileImporter(
+                fileImporter, getParameters().getReportParallelism().getOrElse(1), metrics)
+                .importFiles(files);
+        final List<SpecificationItem> items = new ArrayList<>();
+        final List<SpecificationItem> binaryItems = new ArrayList<>();
+        for (final Map.Entry<Path, List<SpecificationItem>> entry : itemsByFile.entrySet())
+        {
+            final List<SpecificationItem> fileItems = filter.filter(entry.getValue());
+            LOG.info("Read {} spec items from {}", fileItems.size(), entry.getKey());
+            if (BinaryRequirementsFormat.isBinaryFile(entry.getKey()))
+            {
+                binaryItems.addAll(fileItems);
+            }
+            else
+            {
+                items.addAll(fileItems);
+            }
+        }
+        items.addAll(binaryItems);
+        final DirectoryProperty baseDirectory = getParameters().getOriginBaseDirectory();
+        if (baseDirectory.isPresent())
+        {
+            return OriginPaths.relativeTo(baseDirectory.getAsFile().get().toPath())
+                    .convertOrigins(items);
+        }
+        return items;
+    }
+
+    /**
+     * Items filtered and traced separately.
+     *
+     * @param name
+     *            name of the view
+     * @param filterSettings
+     *            filter applied to the imported items or {@code null} to
+     *            trace all items
+     * @param reports
+     *            reports of the view
+     */
+    private record TraceView(String name, FilterSettings filterSettings, List<Report> reports)
+    {
+    }
+
+    private FilterSettings getFilterSettings()
+    {
+        final Parameters parameters = getParameters();
+        final FilterSettings settings = FilterSettings.builder() //
+                .artifactTypes(parameters.getFilteredArtifactTypes().getOrElse(emptySet())) //
+                .tags(parameters.getFilteredTags().get()) //
+                .withoutTags(parameters.getFilterAcceptsItemsWithoutTag().get()).build();
+        LOG.info("Filter settings: artifactTypes={}, tags={}, acceptItemsWithoutTag={}",
+                settings.getArtifactTypes(), settings.getTags(),
+                settings.isArtifactTypeCriteriaSet());
+        return settings;
+    }
+}
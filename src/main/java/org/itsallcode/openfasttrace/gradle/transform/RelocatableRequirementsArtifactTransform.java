@@ -0,0 +1,40 @@
+package org.itsallcode.openfasttrace.gradle.transform;
+
+import java.io.File;
+
+import org.gradle.api.artifacts.transform.*;
+import org.gradle.api.file.FileSystemLocation;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.itsallcode.openfasttrace.gradle.task.importer.OriginPaths;
+
+/**
+ * Converts a requirements artifact like {@link RequirementsArtifactTransform}
+ * for relocatable builds.
+ * <p>
+ * The absolute path of the artifact differs between machines, so origins are
+ * reduced to the file name of the artifact and only the file name is part of
+ * the cache key.
+ */
+@CacheableTransform
+public abstract class RelocatableRequirementsArtifactTransform
+        implements TransformAction<TransformParameters.None>
+{
+    /**
+     * Artifact type of the transformed artifacts.
+     */
+    public static final String ARTIFACT_TYPE = "oft-binary-relocatable";
+
+    @InputArtifact
+    @PathSensitive(PathSensitivity.NAME_ONLY)
+    public abstract Provider<FileSystemLocation> getInputArtifact();
+
+    @Override
+    public void transform(final TransformOutputs outputs)
+    {
+        final File inputFile = getInputArtifact().get().getAsFile();
+        RequirementsArtifactTransform.transform(outputs, inputFile,
+                OriginPaths.relativeTo(inputFile.toPath().getParent()));
+    }
+}
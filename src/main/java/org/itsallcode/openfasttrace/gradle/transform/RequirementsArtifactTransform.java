@@ -0,0 +1,89 @@
+package org.itsallcode.openfasttrace.gradle.transform;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.gradle.api.artifacts.transform.*;
+import org.gradle.api.file.FileSystemLocation;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.importer.ImportSettings;
+import org.itsallcode.openfasttrace.core.OftRunner;
+import org.itsallcode.openfasttrace.gradle.task.cache.BinaryRequirementsFormat;
+import org.itsallcode.openfasttrace.gradle.task.importer.OriginPaths;
+import org.slf4j.Logger;
+
+/**
+ * Imports a requirements artifact, e.g. a zip file with specification
+ * documents, and converts it to the binary requirements format.
+ * <p>
+ * Gradle caches the result per artifact, so {@code traceRequirements} does not
+ * need to unpack and parse the artifact again in every build.
+ * <p>
+ * Origins of the items keep the absolute path of the artifact, like when
+ * {@code traceRequirements} imports the artifact itself, so the cache key
+ * contains the absolute path, too. Relocatable builds use
+ * {@link RelocatableRequirementsArtifactTransform} instead.
+ */
+@CacheableTransform
+public abstract class RequirementsArtifactTransform
+        implements TransformAction<TransformParameters.None>
+{
+    private static final Logger LOG = Logging.getLogger(RequirementsArtifactTransform.class);
+
+    /**
+     * Artifact type of the transformed artifacts.
+     */
+    public static final String ARTIFACT_TYPE = "oft-binary";
+
+    /**
+     * Artifact types that are transformed. Artifacts of other types are
+     * imported by {@code traceRequirements} directly, see
+     * {@link UntransformedArtifacts}.
+     */
+    public static final List<String> SOURCE_ARTIFACT_TYPES = List.of("zip", "xml", "md",
+            "markdown", "rst");
+
+    @InputArtifact
+    @PathSensitive(PathSensitivity.ABSOLUTE)
+    public abstract Provider<FileSystemLocation> getInputArtifact();
+
+    @Override
+    public void transform(final TransformOutputs outputs)
+    {
+        transform(outputs, getInputArtifact().get().getAsFile(), OriginPaths.absolute());
+    }
+
+    static void transform(final TransformOutputs outputs, final File inputFile,
+            final OriginPaths originPaths)
+    {
+        final File outputFile = outputs
+                .file(inputFile.getName() + BinaryRequirementsFormat.FILE_EXTENSION);
+        final List<SpecificationItem> items = originPaths
+                .convertOrigins(importItems(inputFile.toPath()));
+        LOG.info("Converted {} spec items from {} to {}", items.size(), inputFile, outputFile);
+        BinaryRequirementsFormat.write(outputFile.toPath(), items);
+    }
+
+    private static List<SpecificationItem> importItems(final Path inputFile)
+    {
+        // Transforms may run on threads with a different context class loader,
+        // OFT needs the plugin's class loader to find its importers
+        final Thread thread = Thread.currentThread();
+        final ClassLoader contextClassLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(RequirementsArtifactTransform.class.getClassLoader());
+        try
+        {
+            return new OftRunner()
+                    .importItems(ImportSettings.builder().addInputs(inputFile).build());
+        }
+        finally
+        {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+    }
+}
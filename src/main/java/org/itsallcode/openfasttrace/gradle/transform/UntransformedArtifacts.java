@@ -0,0 +1,25 @@
+package org.itsallcode.openfasttrace.gradle.transform;
+
+import java.io.File;
+
+import org.gradle.api.specs.Spec;
+
+/**
+ * Accepts artifacts with a type for which no
+ * {@link RequirementsArtifactTransform} is registered. These artifacts are
+ * passed to {@code traceRequirements} unchanged and imported there.
+ * <p>
+ * The artifact type of a file is its extension unless the dependency
+ * declares another type, so this spec matches by extension.
+ */
+public class UntransformedArtifacts implements Spec<File>
+{
+    @Override
+    public boolean isSatisfiedBy(final File file)
+    {
+        final String name = file.getName();
+        final int extensionStart = name.lastIndexOf('.');
+        final String extension = extensionStart < 0 ? "" : name.substring(extensionStart + 1);
+        return !RequirementsArtifactTransform.SOURCE_ARTIFACT_TYPES.contains(extension);
+    }
+}
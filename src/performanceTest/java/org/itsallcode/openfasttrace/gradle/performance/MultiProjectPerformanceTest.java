@@ -0,0 +1,139 @@
+package org.itsallcode.openfasttrace.gradle.performance;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.testkit.runner.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Measures how configuration and execution time of the plugin scale with the
+ * number of subprojects. Thresholds are multiplied by system property
+ * {@code performanceTest.thresholdFactor} to adapt them to slow machines.
+ */
+class MultiProjectPerformanceTest
+{
+    private static final Logger LOG = Logging.getLogger(MultiProjectPerformanceTest.class);
+    private static final String TRACE_TASK = ":traceRequirements";
+
+    /**
+     * Scenarios with fixed time budgets for each measured build:
+     * <ul>
+     * <li>configuration: configure all projects without configuration
+     * cache</li>
+     * <li>configuration cache hit: skip configuration, so at most half the
+     * configuration budget</li>
+     * <li>up-to-date check: configure all projects and check that nothing
+     * changed, so the configuration budget</li>
+     * <li>clean trace: import, link and report all files</li>
+     * <li>incremental edit: import one changed file and trace again, so at
+     * most half the clean trace budget</li>
+     * </ul>
+     */
+    enum Scenario
+    {
+        SUBPROJECTS_10(10, 200, Duration.ofSeconds(10), Duration.ofSeconds(30)),
+        SUBPROJECTS_100(100, 20, Duration.ofSeconds(20), Duration.ofSeconds(60)),
+        SUBPROJECTS_1000(1000, 3, Duration.ofSeconds(90), Duration.ofSeconds(180));
+
+        final int subprojectCount;
+        final int filesPerSubproject;
+        final Duration maxConfigurationTime;
+        final Duration maxConfigurationCacheHitTime;
+        final Duration maxCleanTraceTime;
+        final Duration maxIncrementalEditTime;
+
+        Scenario(final int subprojectCount, final int filesPerSubproject,
+                final Duration maxConfigurationTime, final Duration maxCleanTraceTime)
+        {
+            this.subprojectCount = subprojectCount;
+            this.filesPerSubproject = filesPerSubproject;
+            this.maxConfigurationTime = maxConfigurationTime;
+            this.maxConfigurationCacheHitTime = maxConfigurationTime.dividedBy(2);
+            this.maxCleanTraceTime = maxCleanTraceTime;
+            this.maxIncrementalEditTime = maxCleanTraceTime.dividedBy(2);
+        }
+    }
+
+    @ParameterizedTest(name = "scalesWithSubprojects {0}")
+    @EnumSource
+    void scalesWithSubprojects(final Scenario scenario, @TempDir final Path projectDir)
+    {
+        final ScaledMultiProject project = new ScaledMultiProject(projectDir,
+                scenario.subprojectCount, scenario.filesPerSubproject);
+        project.generate();
+        LOG.lifecycle("Generated {} subprojects with {} tagged files", scenario.subprojectCount,
+                project.getTaggedFileCount());
+        // Start the daemon of the test kit
+        runBuild(projectDir, "help");
+
+        measure(scenario, "configuration", projectDir, scenario.maxConfigurationTime,
+                "traceRequirements", "--dry-run");
+
+        runBuild(projectDir, "traceRequirements", "--dry-run", "--configuration-cache");
+        final Measurement configurationCacheHit = measure(scenario, "configuration cache hit",
+                projectDir, scenario.maxConfigurationCacheHitTime, "traceRequirements", "--dry-run",
+                "--configuration-cache");
+        assertThat(configurationCacheHit.result().getOutput(),
+                containsString("Reusing configuration cache"));
+
+        final Measurement cleanTrace = measure(scenario, "clean trace", projectDir,
+                scenario.maxCleanTraceTime, "clean", "traceRequirements");
+        assertEquals(TaskOutcome.SUCCESS, cleanTrace.result().task(TRACE_TASK).getOutcome());
+
+        final Measurement upToDate = measure(scenario, "up-to-date check", projectDir,
+                scenario.maxConfigurationTime, "traceRequirements");
+        assertEquals(TaskOutcome.UP_TO_DATE, upToDate.result().task(TRACE_TASK).getOutcome());
+
+        project.editSourceFile(1);
+        final Measurement incrementalEdit = measure(scenario, "incremental edit", projectDir,
+                scenario.maxIncrementalEditTime, "traceRequirements");
+        assertEquals(TaskOutcome.SUCCESS, incrementalEdit.result().task(TRACE_TASK).getOutcome());
+    }
+
+    private static Measurement measure(final Scenario scenario, final String name,
+            final Path projectDir, final Duration threshold, final String... arguments)
+    {
+        final long start = System.nanoTime();
+        final BuildResult result = runBuild(projectDir, arguments);
+        final Duration duration = Duration.ofNanos(System.nanoTime() - start);
+        final Duration maxDuration = threshold
+                .multipliedBy(Math.round(getThresholdFactor() * 100)).dividedBy(100);
+        LOG.lifecycle("{} {}: {} ms (threshold {} ms)", scenario, name, duration.toMillis(),
+                maxDuration.toMillis());
+        assertThat(scenario + " " + name + " time in ms", duration.toMillis(),
+                lessThanOrEqualTo(maxDuration.toMillis()));
+        return new Measurement(result, duration);
+    }
+
+    private static double getThresholdFactor()
+    {
+        return Double.parseDouble(System.getProperty("performanceTest.thresholdFactor", "1"));
+    }
+
+    private static BuildResult runBuild(final Path projectDir, final String... arguments)
+    {
+        final List<String> allArgs = new ArrayList<>(List.of(arguments));
+        allArgs.add("--stacktrace");
+        return GradleRunner.create() //
+                .withProjectDir(projectDir.toFile()) //
+                .withPluginClasspath() //
+                .withArguments(allArgs) //
+                .build();
+    }
+
+    private record Measurement(BuildResult result, Duration duration)
+    {
+    }
+}
@@ -0,0 +1,137 @@
+package org.itsallcode.openfasttrace.gradle.performance;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Generates a scaled variant of {@code example-projects/multi-project}. Each
+ * subproject contains tagged source files covering design requirements
+ * specified in the root project.
+ */
+class ScaledMultiProject
+{
+    private static final int TAGS_PER_FILE = 10;
+
+    private final Path projectDir;
+    private final int subprojectCount;
+    private final int filesPerSubproject;
+
+    ScaledMultiProject(final Path projectDir, final int subprojectCount,
+            final int filesPerSubproject)
+    {
+        this.projectDir = projectDir;
+        this.subprojectCount = subprojectCount;
+        this.filesPerSubproject = filesPerSubproject;
+    }
+
+    void generate()
+    {
+        final StringBuilder settings = new StringBuilder("rootProject.name = 'scaled'\n");
+        final StringBuilder specification = new StringBuilder("# Specification\n\n");
+        for (int project = 0; project < subprojectCount; project++)
+        {
+            settings.append("include 'sub").append(project).append("'\n");
+            generateSubproject(project);
+            for (int file = 0; file < filesPerSubproject; file++)
+            {
+                for (int tag = 0; tag < TAGS_PER_FILE; tag++)
+                {
+                    specification.append("`dsn~sub").append(project).append(".")
+                            .append(tagName(file, tag)).append("~1`\n\nNeeds: impl\n\n");
+                }
+            }
+        }
+        write(projectDir.resolve("settings.gradle"), settings.toString());
+        write(projectDir.resolve("build.gradle"), """
+                plugins {
+                    id "base"
+                    id 'org.itsallcode.openfasttrace'
+                }
+
+                requirementTracing {
+                  failBuild = false
+                  inputDirectories = files('spec')
+                }
+                """);
+        write(projectDir.resolve("spec/spec.md"), specification.toString());
+    }
+
+    private void generateSubproject(final int project)
+    {
+        final Path subprojectDir = projectDir.resolve("sub" + project);
+        write(subprojectDir.resolve("build.gradle"), """
+                requirementTracing {
+                  tags {
+                    tag {
+                      paths = fileTree(dir: 'src/').include '*.impl.*'
+                      tagArtifactType = 'impl'
+                      coveredItemArtifactType = 'dsn'
+                    }
+                  }
+                }
+                """);
+        for (int file = 0; file < filesPerSubproject; file++)
+        {
+            write(getSourceFile(project, file), createSource(file, 0));
+        }
+    }
+
+    /**
+     * Move the tags of one source file down without changing the covered
+     * requirements. The tags get new line numbers, so their items change and
+     * the trace must run again. Edits of lines without tags would not change
+     * the imported items and leave the tasks up-to-date.
+     *
+     * @param revision
+     *            number of the edit, used to make each edit unique
+     */
+    void editSourceFile(final int revision)
+    {
+        write(getSourceFile(0, 0), createSource(0, revision));
+    }
+
+    private Path getSourceFile(final int project, final int file)
+    {
+        return projectDir.resolve("sub" + project + "/src/file" + file + ".impl.js");
+    }
+
+    private static String createSource(final int file, final int revision)
+    {
+        final StringBuilder source = new StringBuilder();
+        for (int line = 0; line <= revision; line++)
+        {
+            source.append("// revision ").append(line).append("\n");
+        }
+        for (int tag = 0; tag < TAGS_PER_FILE; tag++)
+        {
+            source.append("// [[").append(tagName(file, tag)).append(":1]]\n");
+        }
+        return source.toString();
+    }
+
+    private static String tagName(final int file, final int tag)
+    {
+        return "file" + file + "tag" + tag;
+    }
+
+    private static void write(final Path file, final String content)
+    {
+        try
+        {
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, content, StandardCharsets.UTF_8);
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException("Error writing file " + file, e);
+        }
+    }
+
+    int getTaggedFileCount()
+    {
+        return subprojectCount * filesPerSubproject;
+    }
+}
@@ -5,6 +5,7 @@ import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.either;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
@@ -12,11 +13,15 @@ import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.impldep.org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.gradle.internal.impldep.org.apache.commons.compress.archivers.zip.ZipFile;
 import org.gradle.testkit.runner.*;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 import org.slf4j.Logger;
@@ -33,6 +38,11 @@ class OpenFastTracePluginTest
     private static final Path DEPENDENCY_CONFIG_DIR = EXAMPLES_DIR.resolve("dependency-config");
     private static final Path PUBLISH_CONFIG_DIR = EXAMPLES_DIR.resolve("publish-config");
     private static final Path HTML_REPORT_CONFIG_DIR = EXAMPLES_DIR.resolve("html-report");
+    private static final Path INCREMENTAL_CONFIG_DIR = EXAMPLES_DIR.resolve("incremental-config");
+    private static final Path ISOLATED_PROJECTS_DIR = EXAMPLES_DIR.resolve("isolated-projects");
+    private static final String ISOLATED_PROJECTS_ARGUMENT = //
+            "-Dorg.gradle.unsafe.isolated-projects=true";
+    private static final Path FILTERED_INPUT_DIR = EXAMPLES_DIR.resolve("filtered-input");
 
     @ParameterizedTest(name = "tracingTaskAddedToProject {0}")
     @EnumSource
@@ -150,6 +160,74 @@ class OpenFastTracePluginTest
         assertEquals(TaskOutcome.UP_TO_DATE, buildResult.task(":collectRequirements").getOutcome());
     }
 
+    @ParameterizedTest(name = "testCollectImportsOnlyChangedFiles {0}")
+    @EnumSource
+    void testCollectImportsOnlyChangedFiles(final GradleTestConfig config) throws IOException
+    {
+        final Path requirementsFile = INCREMENTAL_CONFIG_DIR
+                .resolve("build/reports/requirements.xml");
+        final Path addedFile = INCREMENTAL_CONFIG_DIR.resolve("build/extra-src/test.java");
+        runBuild(config, INCREMENTAL_CONFIG_DIR, "clean", "collectRequirements");
+        assertThat(fileContent(requirementsFile),
+                not(containsString("<specobjects doctype=\"utest\">")));
+
+        Files.createDirectories(addedFile.getParent());
+        // Unique content avoids restoring the result from the build cache
+        TestUtil.writeFile(addedFile,
+                "// " + UUID.randomUUID() + "\n// [utest->dsn~exampleB~1]\n");
+        BuildResult buildResult = runBuild(config, INCREMENTAL_CONFIG_DIR, "collectRequirements");
+        assertEquals(TaskOutcome.SUCCESS, buildResult.task(":collectRequirements").getOutcome());
+        assertThat(buildResult.getOutput(),
+                containsString("Found 1 added or modified and 0 removed files since last run"));
+        assertFileContent(requirementsFile, "<specobjects doctype=\"utest\">",
+                "<specobjects doctype=\"dsn\">");
+
+        Files.delete(addedFile);
+        buildResult = runBuild(config, INCREMENTAL_CONFIG_DIR, "collectRequirements");
+        assertThat(buildResult.task(":collectRequirements").getOutcome(),
+                either(is(TaskOutcome.SUCCESS)).or(is(TaskOutcome.FROM_CACHE)));
+        assertThat(fileContent(requirementsFile), allOf(
+                not(containsString("<specobjects doctype=\"utest\">")),
+                containsString("<specobjects doctype=\"dsn\">")));
+    }
+
+    @ParameterizedTest(name = "testNormalizedInputsSkipCollectForCodeEdits {0}")
+    @EnumSource
+    void testNormalizedInputsSkipCollectForCodeEdits(final GradleTestConfig config)
+            throws IOException
+    {
+        final Path requirementsFile = INCREMENTAL_CONFIG_DIR
+                .resolve("build/reports/requirements.xml");
+        final Path addedFile = INCREMENTAL_CONFIG_DIR.resolve("build/extra-src/test.java");
+        runBuild(config, INCREMENTAL_CONFIG_DIR, "clean", "collectRequirements",
+                "-PnormalizeInputs=true");
+
+        Files.createDirectories(addedFile.getParent());
+        TestUtil.writeFile(addedFile, "// [utest->dsn~exampleB~1]\n// " + UUID.randomUUID() + "\n");
+        BuildResult buildResult = runBuild(config, INCREMENTAL_CONFIG_DIR, "collectRequirements",
+                "-PnormalizeInputs=true");
+        assertThat(buildResult.task(":collectRequirements").getOutcome(),
+                either(is(TaskOutcome.SUCCESS)).or(is(TaskOutcome.FROM_CACHE)));
+        assertFileContent(requirementsFile, "<specobjects doctype=\"utest\">");
+
+        // Edits of lines without tags don't change the requirements
+        TestUtil.writeFile(addedFile, "// [utest->dsn~exampleB~1]\n// " + UUID.randomUUID() + "\n");
+        buildResult = runBuild(config, INCREMENTAL_CONFIG_DIR, "collectRequirements",
+                "-PnormalizeInputs=true");
+        assertEquals(TaskOutcome.SUCCESS,
+                buildResult.task(":normalizeRequirementInputs").getOutcome());
+        assertEquals(TaskOutcome.UP_TO_DATE,
+                buildResult.task(":collectRequirements").getOutcome());
+
+        Files.delete(addedFile);
+        buildResult = runBuild(config, INCREMENTAL_CONFIG_DIR, "collectRequirements",
+                "-PnormalizeInputs=true");
+        assertThat(buildResult.task(":collectRequirements").getOutcome(),
+                either(is(TaskOutcome.SUCCESS)).or(is(TaskOutcome.FROM_CACHE)));
+        assertThat(fileContent(requirementsFile),
+                not(containsString("<specobjects doctype=\"utest\">")));
+    }
+
     @ParameterizedTest(name = "testHtmlReportConfig {0}")
     @EnumSource
     void testHtmlReportConfig(final GradleTestConfig config) throws IOException
@@ -162,6 +240,11 @@ class OpenFastTracePluginTest
                 "<!DOCTYPE html>",
                 "<summary title=\"dsn~exampleB~1\"><span class=\"red\">&cross;</span>",
                 "<details open>");
+        assertFileContent(HTML_REPORT_CONFIG_DIR.resolve("build/reports/tracing.txt"), "not ok");
+        assertFileContent(HTML_REPORT_CONFIG_DIR.resolve("build/reports/tracing-design.txt"),
+                "ok");
+        assertThat(buildResult.getOutput(),
+                containsString("Tracing result of view 'design': 1 total items, 0 defects"));
     }
 
     @ParameterizedTest(name = "testTraceTaskUpToDateWhenAlreadyRun {0}")
@@ -202,6 +285,159 @@ class OpenFastTracePluginTest
                 "not ok - 2 total, 1 defect");
     }
 
+    @ParameterizedTest(name = "testTraceWithProcessIsolation {0}")
+    @EnumSource
+    void testTraceWithProcessIsolation(final GradleTestConfig config) throws IOException
+    {
+        final BuildResult buildResult = runBuild(config, PROJECT_CUSTOM_CONFIG_DIR, "clean",
+                "traceRequirements", "--rerun-tasks", "-PworkerIsolation=process");
+        assertEquals(TaskOutcome.SUCCESS, buildResult.task(":traceRequirements").getOutcome());
+        assertThat(buildResult.getOutput(),
+                containsString("Running OpenFastTrace with worker isolation PROCESS"));
+        assertThat(buildResult.getOutput(),
+                not(containsString("Using shared OpenFastTrace engine")));
+        assertFileContent(PROJECT_CUSTOM_CONFIG_DIR.resolve("build/custom-report.txt"),
+                "not ok - 2 total, 1 defect");
+    }
+
+    @ParameterizedTest(name = "testTraceUsesSharedEngine {0}")
+    @EnumSource
+    void testTraceUsesSharedEngine(final GradleTestConfig config) throws IOException
+    {
+        final BuildResult buildResult = runBuild(config, PROJECT_CUSTOM_CONFIG_DIR, "clean",
+                "traceRequirements", "--rerun-tasks");
+        assertEquals(TaskOutcome.SUCCESS, buildResult.task(":collectRequirements").getOutcome());
+        assertEquals(TaskOutcome.SUCCESS, buildResult.task(":traceRequirements").getOutcome());
+        // Both tasks use the one engine created for the build
+        assertEquals(1, countOccurrences(buildResult.getOutput(),
+                "Created shared OpenFastTrace engine with "));
+        assertEquals(2, countOccurrences(buildResult.getOutput(),
+                "Using shared OpenFastTrace engine"));
+        assertFileContent(PROJECT_CUSTOM_CONFIG_DIR.resolve("build/custom-report.txt"),
+                "not ok - 2 total, 1 defect");
+        // The parsed item cache is disabled by default
+        assertThat(buildResult.getOutput(), not(containsString("Parsed item cache: ")));
+    }
+
+    @ParameterizedTest(name = "testParsedItemCacheHitsInSecondBuild {0}")
+    @EnumSource
+    void testParsedItemCacheHitsInSecondBuild(final GradleTestConfig config)
+    {
+        runBuild(config, PROJECT_CUSTOM_CONFIG_DIR, "clean", "collectRequirements",
+                "--rerun-tasks", "-PitemCacheSize=16m");
+        final BuildResult buildResult = runBuild(config, PROJECT_CUSTOM_CONFIG_DIR, "clean",
+                "collectRequirements", "--rerun-tasks", "-PitemCacheSize=16m");
+        assertEquals(TaskOutcome.SUCCESS, buildResult.task(":collectRequirements").getOutcome());
+        final Matcher matcher = Pattern.compile("Parsed item cache: (\\d+) hits, (\\d+) misses")
+                .matcher(buildResult.getOutput());
+        assertTrue(matcher.find(), "Parsed item cache statistics not logged");
+        assertThat(Integer.parseInt(matcher.group(1)), greaterThan(0));
+    }
+
+    @ParameterizedTest(name = "testTaskMetricsAreWritten {0}")
+    @EnumSource
+    void testTaskMetricsAreWritten(final GradleTestConfig config) throws IOException
+    {
+        final BuildResult buildResult = runBuild(config, PROJECT_CUSTOM_CONFIG_DIR, "clean",
+                "traceRequirements", "--rerun-tasks");
+        assertEquals(TaskOutcome.SUCCESS, buildResult.task(":traceRequirements").getOutcome());
+        assertFileContent(PROJECT_CUSTOM_CONFIG_DIR.resolve("build/reports/collect-metrics.json"),
+                "\"task\": \"collectRequirements\"", "\"fileDiscovery\": { \"wallTimeMillis\": ",
+                "\"export\"", "\"filesScanned\": 3", "\"items\": 2", "\"peakHeapBytes\": ");
+        assertFileContent(PROJECT_CUSTOM_CONFIG_DIR.resolve("build/tracing-metrics.json"),
+                "\"task\": \"traceRequirements\"", "\"link\"", "\"trace\"", "\"report\"",
+                "\"defects.main\": 1");
+    }
+
+    @ParameterizedTest(name = "testCollectSkipsFilesWithoutTagMarker {0}")
+    @EnumSource
+    void testCollectSkipsFilesWithoutTagMarker(final GradleTestConfig config) throws IOException
+    {
+        final BuildResult buildResult = runBuild(config, PROJECT_CUSTOM_CONFIG_DIR, "clean",
+                "collectRequirements", "--rerun-tasks");
+        assertThat(buildResult.getOutput(),
+                containsString("Tag marker prefilter: 1 files skipped, 1 files scanned"));
+        assertFileContent(PROJECT_CUSTOM_CONFIG_DIR.resolve("build/reports/collect-metrics.json"),
+                "\"tagPrefilterSkipped\": 1", "\"tagPrefilterScanned\": 1");
+    }
+
+    @ParameterizedTest(name = "testInputPatternsAndGitignoreExcludeFiles {0}")
+    @EnumSource
+    void testInputPatternsAndGitignoreExcludeFiles(final GradleTestConfig config)
+            throws IOException
+    {
+        BuildResult buildResult = runBuild(config, FILTERED_INPUT_DIR, "clean",
+                "traceRequirements");
+        assertEquals(TaskOutcome.SUCCESS, buildResult.task(":traceRequirements").getOutcome());
+        assertFileContent(FILTERED_INPUT_DIR.resolve("build/reports/tracing.txt"),
+                "ok - 2 total");
+        final String requirements = fileContent(
+                FILTERED_INPUT_DIR.resolve("build/reports/requirements.xml"));
+        assertThat(requirements, not(containsString("generatedRequirement")));
+        assertThat(requirements, not(containsString("ignoredRequirement")));
+
+        buildResult = runBuild(config, FILTERED_INPUT_DIR, "collectRequirements");
+        assertEquals(TaskOutcome.UP_TO_DATE,
+                buildResult.task(":collectRequirements").getOutcome());
+    }
+
+    @ParameterizedTest(name = "testTraceWithBinaryIntermediateFormat {0}")
+    @EnumSource
+    void testTraceWithBinaryIntermediateFormat(final GradleTestConfig config) throws IOException
+    {
+        final BuildResult buildResult = runBuild(config, PROJECT_CUSTOM_CONFIG_DIR, "clean",
+                "traceRequirements", "-PintermediateFormat=binary");
+        assertEquals(TaskOutcome.SUCCESS, buildResult.task(":traceRequirements").getOutcome());
+        assertTrue(
+                Files.exists(PROJECT_CUSTOM_CONFIG_DIR.resolve("build/oft/requirements.oftbin")));
+        assertFileContent(PROJECT_CUSTOM_CONFIG_DIR.resolve("build/reports/requirements.xml"),
+                "<specobjects");
+        assertFileContent(PROJECT_CUSTOM_CONFIG_DIR.resolve("build/custom-report.txt"),
+                "not ok - 2 total, 1 defect");
+    }
+
+    @ParameterizedTest(name = "testUnknownIntermediateFormatFailsConfiguration {0}")
+    @EnumSource
+    void testUnknownIntermediateFormatFailsConfiguration(final GradleTestConfig config)
+    {
+        final BuildResult buildResult = runBuildExpectFailure(config, PROJECT_CUSTOM_CONFIG_DIR,
+                "traceRequirements", "-PintermediateFormat=binray");
+        assertNull(buildResult.task(":collectRequirements"));
+        assertThat(buildResult.getOutput(), containsString("Unknown intermediate format 'binray',"
+                + " supported formats are [specobject, binary]"));
+    }
+
+    @ParameterizedTest(name = "testTraceWithStreamingCollect {0}")
+    @EnumSource
+    void testTraceWithStreamingCollect(final GradleTestConfig config) throws IOException
+    {
+        final BuildResult buildResult = runBuild(config, PROJECT_CUSTOM_CONFIG_DIR, "clean",
+                "traceRequirements", "-PstreamingCollect=true", "-PintermediateFormat=binary");
+        assertEquals(TaskOutcome.SUCCESS, buildResult.task(":collectRequirements").getOutcome());
+        assertThat(buildResult.getOutput(), containsString("Streamed 2 spec items from"));
+        assertFileContent(PROJECT_CUSTOM_CONFIG_DIR.resolve("build/reports/requirements.xml"),
+                "<specobjects doctype=\"dsn\">");
+        assertFileContent(PROJECT_CUSTOM_CONFIG_DIR.resolve("build/custom-report.txt"),
+                "not ok - 2 total, 1 defect");
+    }
+
+    @ParameterizedTest(name = "testRelocatableOutputsAreLoadedFromCache {0}")
+    @EnumSource
+    void testRelocatableOutputsAreLoadedFromCache(final GradleTestConfig config,
+            @TempDir final Path tempDir) throws IOException
+    {
+        final Path firstCheckout = copyProject(PROJECT_CUSTOM_CONFIG_DIR, tempDir.resolve("first"));
+        final Path secondCheckout = copyProject(PROJECT_CUSTOM_CONFIG_DIR,
+                tempDir.resolve("second"));
+        runBuild(config, firstCheckout, "traceRequirements", "-Prelocatable=true");
+        final BuildResult buildResult = runBuild(config, secondCheckout, "traceRequirements",
+                "-Prelocatable=true");
+        assertEquals(TaskOutcome.FROM_CACHE, buildResult.task(":collectRequirements").getOutcome());
+        assertEquals(TaskOutcome.FROM_CACHE, buildResult.task(":traceRequirements").getOutcome());
+        assertFileContent(secondCheckout.resolve("build/reports/requirements.xml"),
+                "<sourcefile>custom-dir/spec.md</sourcefile>");
+    }
+
     @ParameterizedTest(name = "filteredArtifactTypes {0}")
     @EnumSource
     void filteredArtifactTypes(final GradleTestConfig config)
@@ -241,9 +477,55 @@ class OpenFastTracePluginTest
                 "traceRequirements");
         assertThat(buildResult.task(":traceRequirements").getOutcome(),
                 either(is(TaskOutcome.SUCCESS)).or(is(TaskOutcome.FROM_CACHE)));
+        assertThat(buildResult.task(":sub1:collectRequirements").getOutcome(),
+                either(is(TaskOutcome.SUCCESS)).or(is(TaskOutcome.FROM_CACHE)));
+        assertNull(buildResult.task(":sub2:collectRequirements"));
+        assertFileContent(MULTI_PROJECT_DIR.resolve("sub1/build/reports/requirements.xml"),
+                "<linksto>dsn:sub1.tagname2</linksto>");
+        assertFileContent(MULTI_PROJECT_DIR.resolve("build/custom-report.txt"), "ok - 6 total");
+    }
+
+    @ParameterizedTest(name = "testTraceMultiProjectWithOverlappingInputs {0}")
+    @EnumSource
+    void testTraceMultiProjectWithOverlappingInputs(final GradleTestConfig config)
+            throws IOException
+    {
+        final BuildResult buildResult = runBuild(config, MULTI_PROJECT_DIR, "clean",
+                "traceRequirements", "-PoverlappingInputs=true");
+        assertThat(buildResult.task(":traceRequirements").getOutcome(),
+                either(is(TaskOutcome.SUCCESS)).or(is(TaskOutcome.FROM_CACHE)));
+        // Items of sub1 imported by sub1 and the root project are counted once
         assertFileContent(MULTI_PROJECT_DIR.resolve("build/custom-report.txt"), "ok - 6 total");
     }
 
+    @ParameterizedTest(name = "testTraceIsolatedProjects {0}")
+    @EnumSource
+    void testTraceIsolatedProjects(final GradleTestConfig config) throws IOException
+    {
+        final BuildResult buildResult = runBuild(config, ISOLATED_PROJECTS_DIR, "clean",
+                "traceRequirements", ISOLATED_PROJECTS_ARGUMENT);
+        assertThat(buildResult.task(":traceRequirements").getOutcome(),
+                either(is(TaskOutcome.SUCCESS)).or(is(TaskOutcome.FROM_CACHE)));
+        assertThat(buildResult.task(":sub1:collectRequirements").getOutcome(),
+                either(is(TaskOutcome.SUCCESS)).or(is(TaskOutcome.FROM_CACHE)));
+        assertNull(buildResult.task(":sub2:collectRequirements"));
+        assertFileContent(ISOLATED_PROJECTS_DIR.resolve("build/custom-report.txt"),
+                "ok - 6 total");
+    }
+
+    @ParameterizedTest(name = "testTraceWithProjectIsolationProperty {0}")
+    @EnumSource
+    void testTraceWithProjectIsolationProperty(final GradleTestConfig config) throws IOException
+    {
+        final BuildResult buildResult = runBuild(config, ISOLATED_PROJECTS_DIR, "clean",
+                "traceRequirements", "-Porg.itsallcode.openfasttrace.projectIsolation=true");
+        assertThat(buildResult.task(":traceRequirements").getOutcome(),
+                either(is(TaskOutcome.SUCCESS)).or(is(TaskOutcome.FROM_CACHE)));
+        assertNull(buildResult.task(":sub2:collectRequirements"));
+        assertFileContent(ISOLATED_PROJECTS_DIR.resolve("build/custom-report.txt"),
+                "ok - 6 total");
+    }
+
     @ParameterizedTest(name = "traceDependencyProject {0}")
     @EnumSource
     void traceDependencyProject(final GradleTestConfig config) throws IOException
@@ -263,6 +545,68 @@ class OpenFastTracePluginTest
                 "not ok - 2 total, 1 defect");
     }
 
+    @ParameterizedTest(name = "traceDependencyProjectWithOtherArtifactTypes {0}")
+    @EnumSource
+    void traceDependencyProjectWithOtherArtifactTypes(final GradleTestConfig config)
+            throws IOException
+    {
+        final Path repository = createDependencyRepositoryWithOtherArtifactTypes(config);
+
+        final BuildResult buildResult = runBuild(config, DEPENDENCY_CONFIG_DIR,
+                "traceRequirements",
+                "-PimportedRequirements=:requirements:1.0@markdown,:coverage:1.0@java");
+        assertThat(buildResult.task(":traceRequirements").getOutcome(),
+                either(is(TaskOutcome.SUCCESS)).or(is(TaskOutcome.FROM_CACHE)));
+        // Transformed artifacts keep the absolute path of the artifact
+        assertFileContent(DEPENDENCY_CONFIG_DIR.resolve("build/reports/tracing.txt"),
+                repository.toAbsolutePath().resolve("requirements-1.0.markdown") + ":2", //
+                "coverage-1.0.java:1", //
+                "not ok - 2 total, 1 defect");
+    }
+
+    @ParameterizedTest(name = "traceDependencyProjectRelocatable {0}")
+    @EnumSource
+    void traceDependencyProjectRelocatable(final GradleTestConfig config) throws IOException
+    {
+        final Path repository = createDependencyRepositoryWithOtherArtifactTypes(config);
+
+        final BuildResult buildResult = runBuild(config, DEPENDENCY_CONFIG_DIR,
+                "traceRequirements", "-Prelocatable=true",
+                "-PimportedRequirements=:requirements:1.0@markdown,:coverage:1.0@java");
+        assertThat(buildResult.task(":traceRequirements").getOutcome(),
+                either(is(TaskOutcome.SUCCESS)).or(is(TaskOutcome.FROM_CACHE)));
+        final Path report = DEPENDENCY_CONFIG_DIR.resolve("build/reports/tracing.txt");
+        assertFileContent(report, "requirements-1.0.markdown:2", //
+                "not ok - 2 total, 1 defect");
+        assertThat(fileContent(report),
+                not(containsString(repository.toAbsolutePath().toString())));
+    }
+
+    private static Path createDependencyRepositoryWithOtherArtifactTypes(
+            final GradleTestConfig config) throws IOException
+    {
+        runBuild(config, DEPENDENCY_CONFIG_DIR, "clean");
+        final Path repository = DEPENDENCY_CONFIG_DIR.resolve("build/repo");
+        Files.createDirectories(repository);
+        // Markdown is transformed, Java source files are passed through
+        Files.copy(PROJECT_DEFAULT_CONFIG_DIR.resolve("doc/spec.md"),
+                repository.resolve("requirements-1.0.markdown"));
+        Files.copy(PROJECT_DEFAULT_CONFIG_DIR.resolve("src/source.java"),
+                repository.resolve("coverage-1.0.java"));
+        return repository;
+    }
+
+    @ParameterizedTest(name = "importedRequirementsNotResolvedDuringConfiguration {0}")
+    @EnumSource
+    void importedRequirementsNotResolvedDuringConfiguration(final GradleTestConfig config)
+    {
+        runBuild(config, DEPENDENCY_CONFIG_DIR, "clean");
+        assertFalse(Files.exists(DEPENDENCY_CONFIG_DIR.resolve("build/repo")));
+        final BuildResult buildResult = runBuild(config, DEPENDENCY_CONFIG_DIR, "tasks", "--all");
+        assertThat(buildResult.getOutput(), containsString(
+                "traceRequirements - Trace requirements and generate tracing report"));
+    }
+
     @ParameterizedTest(name = "publishToMavenRepo {0}")
     @EnumSource
     void publishToMavenRepo(final GradleTestConfig config) throws IOException
@@ -322,6 +666,32 @@ class OpenFastTracePluginTest
         }
     }
 
+    private static Path copyProject(final Path projectDir, final Path targetDir)
+            throws IOException
+    {
+        try (Stream<Path> files = Files.walk(projectDir))
+        {
+            for (final Path source : files.toList())
+            {
+                final Path relativePath = projectDir.relativize(source);
+                if (relativePath.startsWith("build") || relativePath.startsWith(".gradle"))
+                {
+                    continue;
+                }
+                final Path target = targetDir.resolve(relativePath.toString());
+                if (Files.isDirectory(source))
+                {
+                    Files.createDirectories(target);
+                }
+                else
+                {
+                    Files.copy(source, target);
+                }
+            }
+        }
+        return targetDir;
+    }
+
     private static void assertFileContent(final Path file, final String... lines) throws IOException
     {
         final String fileContent = fileContent(file);
@@ -331,6 +701,17 @@ class OpenFastTracePluginTest
         }
     }
 
+    private static int countOccurrences(final String text, final String value)
+    {
+        int count = 0;
+        for (int index = text.indexOf(value); index >= 0; index = text.indexOf(value,
+                index + value.length()))
+        {
+            count++;
+        }
+        return count;
+    }
+
     private static String fileContent(final Path file) throws IOException
     {
         return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
@@ -351,7 +732,7 @@ class OpenFastTracePluginTest
     private static GradleRunner createGradleRunner(final GradleTestConfig config,
             final Path projectDir, final String... arguments)
     {
-        configureJacoco(projectDir);
+        configureJacoco(projectDir, List.of(arguments).contains(ISOLATED_PROJECTS_ARGUMENT));
         final List<String> allArgs = new ArrayList<>();
         allArgs.addAll(List.of(arguments));
         allArgs.addAll(List.of("--info", "--stacktrace", "--build-cache"));
@@ -380,8 +761,15 @@ class OpenFastTracePluginTest
         return System.getProperty("enableConfigurationCache", "false").equalsIgnoreCase("true");
     }
 
-    private static void configureJacoco(final Path projectDir)
+    private static void configureJacoco(final Path projectDir, final boolean isolatedProjects)
     {
+        if (isolatedProjects)
+        {
+            LOG.info("Isolated projects enabled, which implies the configuration cache. "
+                    + "Skipping jacoco configuration for testkit.");
+            TestUtil.deleteFile(projectDir.resolve("gradle.properties"));
+            return;
+        }
         if (configurationCacheEnabled())
         {
             LOG.info(
@@ -43,4 +43,16 @@ public class TestUtil
             throw new AssertionError("Error writing to file " + file, e);
         }
     }
+
+    public static void deleteFile(final Path file)
+    {
+        try
+        {
+            Files.deleteIfExists(file);
+        }
+        catch (final IOException e)
+        {
+            throw new AssertionError("Error deleting file " + file, e);
+        }
+    }
 }
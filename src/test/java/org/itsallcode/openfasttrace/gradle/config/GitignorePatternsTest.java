@@ -0,0 +1,47 @@
+package org.itsallcode.openfasttrace.gradle.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class GitignorePatternsTest
+{
+    @ParameterizedTest(name = "''{0}'' excludes {1}")
+    @CsvSource({ //
+            "'', ''", //
+            "'   ', ''", //
+            "'# comment', ''", //
+            "!keep.md, ''", //
+            "/, ''", //
+            "*.log, **/*.log|**/*.log/**", //
+            "'trailing.txt   ', **/trailing.txt|**/trailing.txt/**", //
+            "build/, **/build/**", //
+            "/out, out|out/**", //
+            "/tmp/, tmp/**", //
+            "docs/generated/, docs/generated/**", //
+            "src/*.bak, src/*.bak|src/*.bak/**", //
+            "a/**/b, a/**/b|a/**/b/**", //
+            "\\#hash, **/#hash|**/#hash/**", //
+            "\\!bang, **/!bang|**/!bang/**" })
+    void testToExcludePatterns(final String line, final String expectedPatterns)
+    {
+        assertEquals(toList(expectedPatterns), GitignorePatterns.toExcludePatterns(line));
+    }
+
+    @Test
+    void testMultipleLines()
+    {
+        assertEquals(List.of("**/build/**", "**/*.tmp", "**/*.tmp/**", "out", "out/**"),
+                GitignorePatterns.toExcludePatterns("build/\n# comment\r\n*.tmp\r\n\n/out\n"));
+    }
+
+    private static List<String> toList(final String patterns)
+    {
+        return patterns.isEmpty() ? List.of() : Arrays.asList(patterns.split("\\|"));
+    }
+}
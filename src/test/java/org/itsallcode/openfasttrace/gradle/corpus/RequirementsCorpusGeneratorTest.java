@@ -0,0 +1,116 @@
+package org.itsallcode.openfasttrace.gradle.corpus;
+
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.core.Trace;
+import org.itsallcode.openfasttrace.api.importer.ImportSettings;
+import org.itsallcode.openfasttrace.core.Oft;
+import org.itsallcode.openfasttrace.core.OftRunner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Imports and traces generated corpora with OpenFastTrace to check that they
+ * have the configured shape.
+ */
+class RequirementsCorpusGeneratorTest
+{
+    private static final long SEED = 42;
+
+    private final Oft oft = new OftRunner();
+
+    @Test
+    void testCorpusContainsRequestedRequirements(@TempDir final Path directory)
+    {
+        final GeneratedCorpus corpus = builder().requirementCount(100).build().generate(directory);
+        final List<SpecificationItem> items = importItems(corpus);
+        assertAll(() -> assertEquals(corpus.itemCount(), items.size()),
+                () -> assertEquals(Map.of("feat", 25L, "req", 50L, "dsn", 100L, "impl", 100L),
+                        countByArtifactType(items)),
+                () -> assertEquals("dsn", corpus.coveredArtifactType()),
+                () -> assertEquals(0, corpus.uncoveredCount()),
+                () -> assertEquals(0, trace(items).countDefects()));
+    }
+
+    @Test
+    void testCoverageDepthLimitsLevels(@TempDir final Path directory)
+    {
+        final GeneratedCorpus corpus = builder().requirementCount(100).coverageDepth(2).build()
+                .generate(directory);
+        final List<SpecificationItem> items = importItems(corpus);
+        assertAll(() -> assertEquals(corpus.itemCount(), items.size()),
+                () -> assertEquals(Map.of("feat", 50L, "req", 100L, "impl", 100L),
+                        countByArtifactType(items)),
+                () -> assertEquals("req", corpus.coveredArtifactType()),
+                () -> assertEquals(0, trace(items).countDefects()));
+    }
+
+    @Test
+    void testDefectRatioLeavesRequirementsUncovered(@TempDir final Path directory)
+    {
+        final GeneratedCorpus corpus = builder().requirementCount(1000).defectRatio(0.1).build()
+                .generate(directory);
+        final List<SpecificationItem> items = importItems(corpus);
+        final long uncoveredLeaves = trace(items).getDefectItems().stream()
+                .filter(item -> item.getId().getArtifactType().equals("dsn")).count();
+        assertAll(() -> assertEquals(corpus.itemCount(), items.size()),
+                () -> assertEquals(1000L - corpus.uncoveredCount(),
+                        countByArtifactType(items).get("impl").longValue()),
+                () -> assertEquals(corpus.uncoveredCount(), uncoveredLeaves),
+                () -> assertTrue(corpus.uncoveredCount() >= 70 && corpus.uncoveredCount() <= 130,
+                        "uncovered count " + corpus.uncoveredCount() + " near 10% of 1000"));
+    }
+
+    @Test
+    void testSameSeedGeneratesSameCorpus(@TempDir final Path firstDirectory,
+            @TempDir final Path secondDirectory)
+    {
+        final GeneratedCorpus first = builder().build().generate(firstDirectory);
+        final GeneratedCorpus second = builder().build().generate(secondDirectory);
+        assertEquals(first.allFiles().size(), second.allFiles().size());
+        for (int i = 0; i < first.allFiles().size(); i++)
+        {
+            final Path firstFile = first.allFiles().get(i);
+            final Path secondFile = second.allFiles().get(i);
+            assertAll(() -> assertEquals(firstDirectory.relativize(firstFile),
+                    secondDirectory.relativize(secondFile)),
+                    () -> assertEquals(Files.readString(firstFile),
+                            Files.readString(secondFile)));
+        }
+    }
+
+    private static RequirementsCorpusGenerator.Builder builder()
+    {
+        return RequirementsCorpusGenerator.builder() //
+                .artifactTypes(List.of("feat", "req", "dsn")) //
+                .fileSize(RequirementsCorpusGenerator.FileSizeDistribution.SKEWED, 5, 50) //
+                .seed(SEED);
+    }
+
+    private List<SpecificationItem> importItems(final GeneratedCorpus corpus)
+    {
+        return oft.importItems(ImportSettings.builder() //
+                .addInputs(corpus.allFiles()) //
+                .pathConfigs(List.of(corpus.createPathConfig())) //
+                .build());
+    }
+
+    private Trace trace(final List<SpecificationItem> items)
+    {
+        return oft.trace(oft.link(items));
+    }
+
+    private static Map<String, Long> countByArtifactType(final List<SpecificationItem> items)
+    {
+        return items.stream()
+                .collect(groupingBy(item -> item.getId().getArtifactType(), counting()));
+    }
+}
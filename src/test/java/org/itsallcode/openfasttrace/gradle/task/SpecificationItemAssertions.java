@@ -0,0 +1,42 @@
+package org.itsallcode.openfasttrace.gradle.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.itsallcode.openfasttrace.api.core.Location;
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+
+/**
+ * Compares specification items by all their properties.
+ */
+public final class SpecificationItemAssertions
+{
+    private SpecificationItemAssertions()
+    {
+        // Not instantiable
+    }
+
+    public static void assertItemsEqual(final List<SpecificationItem> expected,
+            final List<SpecificationItem> actual)
+    {
+        assertEquals(describe(expected), describe(actual));
+    }
+
+    private static List<String> describe(final List<SpecificationItem> items)
+    {
+        return items.stream().map(SpecificationItemAssertions::describe).toList();
+    }
+
+    private static String describe(final SpecificationItem item)
+    {
+        final Location location = item.getLocation();
+        return item.getId() + " [title=" + item.getTitle() + ", description="
+                + item.getDescription() + ", rationale=" + item.getRationale() + ", comment="
+                + item.getComment() + ", location="
+                + (location == null ? null : location.getPath() + ":" + location.getLine())
+                + ", status=" + item.getStatus() + ", forwards=" + item.isForwarding()
+                + ", needs=" + item.getNeedsArtifactTypes() + ", covers=" + item.getCoveredIds()
+                + ", dependsOn=" + item.getDependOnIds() + ", tags=" + item.getTags() + "]";
+    }
+}
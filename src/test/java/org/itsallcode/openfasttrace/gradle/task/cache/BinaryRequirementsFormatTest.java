@@ -0,0 +1,99 @@
+package org.itsallcode.openfasttrace.gradle.task.cache;
+
+import static org.itsallcode.openfasttrace.gradle.task.SpecificationItemAssertions.assertItemsEqual;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.itsallcode.openfasttrace.api.core.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BinaryRequirementsFormatTest
+{
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTripWithAllFields()
+    {
+        final List<SpecificationItem> items = List.of(SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("dsn", "all.fields", 3)) //
+                .title("Title with ümlauts and \"quotes\"") //
+                .description("Multi\nline <description> & more") //
+                .rationale("Rationale") //
+                .comment("Comment") //
+                .location(Location.create("src/main/Example.java", 42)) //
+                .status(ItemStatus.DRAFT) //
+                .addNeedsArtifactType("impl") //
+                .addNeedsArtifactType("utest") //
+                .addCoveredId(SpecificationItemId.createId("req", "covered", 1)) //
+                .addCoveredId(SpecificationItemId.createId("feat", "covered", 2)) //
+                .addDependOnId(SpecificationItemId.createId("dsn", "dependency", 1)) //
+                .addTag("alpha") //
+                .addTag("beta") //
+                .build());
+        assertItemsEqual(items, writeAndRead(items));
+    }
+
+    @Test
+    void testRoundTripWithEmptyFields()
+    {
+        final List<SpecificationItem> items = List.of(
+                SpecificationItem.builder().id(SpecificationItemId.createId("impl", "empty", 0))
+                        .build(),
+                SpecificationItem.builder().id(SpecificationItemId.createId("req", "forward", 1))
+                        .forwards(true).addNeedsArtifactType("dsn")
+                        .addCoveredId(SpecificationItemId.createId("feat", "forward", 1))
+                        .build());
+        assertItemsEqual(items, writeAndRead(items));
+    }
+
+    @Test
+    void testRoundTripWithManyItemsSharingStrings()
+    {
+        final List<SpecificationItem> items = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+        {
+            items.add(SpecificationItem.builder() //
+                    .id(SpecificationItemId.createId("impl", "item" + i, i % 3)) //
+                    .location(Location.create("src/File" + (i % 10) + ".java", i)) //
+                    .addCoveredId(SpecificationItemId.createId("dsn", "item" + i, 1)) //
+                    .addTag("tag" + (i % 5)) //
+                    .build());
+        }
+        assertItemsEqual(items, writeAndRead(items));
+    }
+
+    @Test
+    void testRoundTripWithoutItems()
+    {
+        assertEquals(List.of(), writeAndRead(List.of()));
+    }
+
+    @Test
+    void testIsBinaryFile() throws IOException
+    {
+        final Path binaryFile = tempDir.resolve("requirements.oftbin");
+        BinaryRequirementsFormat.write(binaryFile, List.of());
+        final Path otherFile = tempDir.resolve("requirements.xml");
+        Files.writeString(otherFile, "<specdocument/>");
+        final Path binaryContentFile = tempDir.resolve("requirements.bin");
+        BinaryRequirementsFormat.write(binaryContentFile, List.of());
+        assertAll(() -> assertTrue(BinaryRequirementsFormat.isBinaryFile(binaryFile)),
+                () -> assertFalse(BinaryRequirementsFormat.isBinaryFile(otherFile)),
+                () -> assertFalse(BinaryRequirementsFormat.isBinaryFile(binaryContentFile)),
+                () -> assertFalse(BinaryRequirementsFormat.isBinaryFile(tempDir)));
+    }
+
+    private List<SpecificationItem> writeAndRead(final List<SpecificationItem> items)
+    {
+        final Path file = tempDir.resolve("requirements.oftbin");
+        BinaryRequirementsFormat.write(file, items);
+        return BinaryRequirementsFormat.read(file);
+    }
+}
@@ -0,0 +1,117 @@
+package org.itsallcode.openfasttrace.gradle.task.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.core.SpecificationItemId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class ParsedItemCacheTest
+{
+    private static final List<SpecificationItem> ITEMS_A = createItems("a");
+    private static final List<SpecificationItem> ITEMS_B = createItems("b");
+    private static final List<SpecificationItem> ITEMS_C = createItems("c");
+
+    @Test
+    void testHitReturnsCachedItems()
+    {
+        final ParsedItemCache cache = new ParsedItemCache(1024 * 1024);
+        cache.put("a", ITEMS_A);
+        assertSame(ITEMS_A, cache.get("a").orElseThrow());
+    }
+
+    @Test
+    void testMiss()
+    {
+        final ParsedItemCache cache = new ParsedItemCache(1024 * 1024);
+        cache.put("a", ITEMS_A);
+        assertEquals(Optional.empty(), cache.get("b"));
+    }
+
+    @Test
+    void testLeastRecentlyAddedEntryIsEvicted()
+    {
+        final ParsedItemCache cache = new ParsedItemCache(budgetForEntries(2));
+        cache.put("a", ITEMS_A);
+        cache.put("b", ITEMS_B);
+        cache.put("c", ITEMS_C);
+        assertAll(() -> assertEquals(Optional.empty(), cache.get("a")),
+                () -> assertSame(ITEMS_B, cache.get("b").orElseThrow()),
+                () -> assertSame(ITEMS_C, cache.get("c").orElseThrow()),
+                () -> assertEquals(2 * entrySize(), cache.getUsedBytes()));
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted()
+    {
+        final ParsedItemCache cache = new ParsedItemCache(budgetForEntries(2));
+        cache.put("a", ITEMS_A);
+        cache.put("b", ITEMS_B);
+        cache.get("a");
+        cache.put("c", ITEMS_C);
+        assertAll(() -> assertSame(ITEMS_A, cache.get("a").orElseThrow()),
+                () -> assertEquals(Optional.empty(), cache.get("b")),
+                () -> assertSame(ITEMS_C, cache.get("c").orElseThrow()));
+    }
+
+    @ParameterizedTest(name = "budget for {0} entries keeps {1} entries")
+    @CsvSource({ "0, 0", "1, 1", "2, 2", "3, 3", "4, 3" })
+    void testUsedBytesStayWithinBudget(final int entries, final int expectedEntries)
+    {
+        final ParsedItemCache cache = new ParsedItemCache(budgetForEntries(entries));
+        cache.put("a", ITEMS_A);
+        cache.put("b", ITEMS_B);
+        cache.put("c", ITEMS_C);
+        assertEquals(expectedEntries * entrySize(), cache.getUsedBytes());
+    }
+
+    @Test
+    void testReplacingEntryDoesNotCountTwice()
+    {
+        final ParsedItemCache cache = new ParsedItemCache(1024 * 1024);
+        cache.put("a", ITEMS_A);
+        cache.put("a", ITEMS_B);
+        assertAll(() -> assertSame(ITEMS_B, cache.get("a").orElseThrow()),
+                () -> assertEquals(entrySize(), cache.getUsedBytes()));
+    }
+
+    @Test
+    void testReducingBudgetEvictsEntries()
+    {
+        final ParsedItemCache cache = new ParsedItemCache(budgetForEntries(3));
+        cache.put("a", ITEMS_A);
+        cache.put("b", ITEMS_B);
+        cache.put("c", ITEMS_C);
+        cache.setMaxBytes(budgetForEntries(1));
+        assertAll(() -> assertEquals(Optional.empty(), cache.get("a")),
+                () -> assertEquals(Optional.empty(), cache.get("b")),
+                () -> assertSame(ITEMS_C, cache.get("c").orElseThrow()));
+    }
+
+    private static long entrySize()
+    {
+        final ParsedItemCache cache = new ParsedItemCache(Long.MAX_VALUE);
+        cache.put("a", ITEMS_A);
+        return cache.getUsedBytes();
+    }
+
+    // Leaves room for half an entry more
+    private static long budgetForEntries(final int entries)
+    {
+        return entries * entrySize() + entrySize() / 2;
+    }
+
+    private static List<SpecificationItem> createItems(final String name)
+    {
+        return List.of(SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("dsn", name, 1)) //
+                .title("Title " + name) //
+                .description("Description of " + name) //
+                .build());
+    }
+}
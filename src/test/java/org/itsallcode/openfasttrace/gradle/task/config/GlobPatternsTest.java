@@ -0,0 +1,49 @@
+package org.itsallcode.openfasttrace.gradle.task.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.util.List;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class GlobPatternsTest
+{
+    private static final File BASE_DIRECTORY = new File("base").getAbsoluteFile();
+
+    @ParameterizedTest(name = "{0} matches {1}: {2}")
+    @CsvSource({ //
+            "'', a.java, true", //
+            "'', dir/a.java, true", //
+            "*.test.*, app.test.js, true", //
+            "*.test.*, dir/app.test.js, false", //
+            "**/*.java, a.java, true", //
+            "**/*.java, dir/sub/a.java, true", //
+            "**/*.java, a.js, false", //
+            "src/**/test/*.java, src/test/a.java, true", //
+            "src/**/test/*.java, src/x/y/test/a.java, true", //
+            "src/**/test/*.java, other/test/a.java, false", //
+            "dir/, dir/sub/a.java, true", //
+            "{a}.java, {a}.java, true" })
+    void testToGlob(final String include, final String file, final boolean expectedMatch)
+    {
+        final List<String> includes = include.isEmpty() ? List.of() : List.of(include);
+        final PathMatcher matcher = FileSystems.getDefault()
+                .getPathMatcher("glob:" + GlobPatterns.toGlob(BASE_DIRECTORY, includes));
+        assertEquals(expectedMatch, matcher.matches(BASE_DIRECTORY.toPath().resolve(file)));
+    }
+
+    @ParameterizedTest(name = "{0} does not match outside of base directory")
+    @CsvSource({ "''", "**/*.java" })
+    void testDoesNotMatchOutsideOfBaseDirectory(final String include)
+    {
+        final List<String> includes = include.isEmpty() ? List.of() : List.of(include);
+        final PathMatcher matcher = FileSystems.getDefault()
+                .getPathMatcher("glob:" + GlobPatterns.toGlob(BASE_DIRECTORY, includes));
+        assertEquals(false,
+                matcher.matches(BASE_DIRECTORY.toPath().resolveSibling("other/a.java")));
+    }
+}
@@ -0,0 +1,130 @@
+package org.itsallcode.openfasttrace.gradle.task.exporter;
+
+import static org.itsallcode.openfasttrace.gradle.task.SpecificationItemAssertions.assertItemsEqual;
+
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+
+import org.itsallcode.openfasttrace.api.core.*;
+import org.itsallcode.openfasttrace.api.importer.ImportSettings;
+import org.itsallcode.openfasttrace.core.Oft;
+import org.itsallcode.openfasttrace.core.OftRunner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Compares the files written by {@link SpecobjectWriter} with the files
+ * written by OpenFastTrace's specobject exporter by importing both.
+ */
+class SpecobjectWriterTest
+{
+    private final Oft oft = new OftRunner();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testEscapedCharacters()
+    {
+        assertSameAsOftExport(List.of(SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("dsn", "escaping", 1)) //
+                .title("<Title> & \"quotes\" 'apostrophes'") //
+                .description("Multi-line\n<description> with & and ]]> and ümlauts") //
+                .rationale("Rationale with <tags/>") //
+                .comment("Comment with &amp;") //
+                .location(Location.create("src/dir with spaces/A&B.java", 1)) //
+                .addTag("tag&1") //
+                .build()));
+    }
+
+    @Test
+    void testEmptyFields()
+    {
+        assertSameAsOftExport(List.of(
+                SpecificationItem.builder() //
+                        .id(SpecificationItemId.createId("impl", "minimal", 0)) //
+                        .location(Location.create("src/Minimal.java", 7)) //
+                        .build(),
+                SpecificationItem.builder() //
+                        .id(SpecificationItemId.createId("req", "onlyNeeds", 2)) //
+                        .location(Location.create("doc/spec.md", 3)) //
+                        .addNeedsArtifactType("dsn") //
+                        .build()));
+    }
+
+    @Test
+    void testAllFields()
+    {
+        assertSameAsOftExport(List.of(SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("dsn", "all.fields", 3)) //
+                .title("Title") //
+                .description("Description") //
+                .rationale("Rationale") //
+                .comment("Comment") //
+                .location(Location.create("doc/design.md", 42)) //
+                .status(ItemStatus.DRAFT) //
+                .addNeedsArtifactType("impl") //
+                .addNeedsArtifactType("utest") //
+                .addCoveredId(SpecificationItemId.createId("req", "covered", 1)) //
+                .addCoveredId(SpecificationItemId.createId("feat", "covered", 2)) //
+                .addDependOnId(SpecificationItemId.createId("dsn", "dependency", 1)) //
+                .addTag("alpha") //
+                .addTag("beta") //
+                .build()));
+    }
+
+    @Test
+    void testMultipleArtifactTypesInOneFile()
+    {
+        assertSameAsOftExport(List.of(createItem("req", "a"), createItem("dsn", "b"),
+                createItem("impl", "c"), createItem("req", "d"), createItem("dsn", "e")));
+    }
+
+    @Test
+    void testSameArtifactTypeWrittenInMultipleSteps()
+    {
+        final List<SpecificationItem> first = List.of(createItem("req", "a"),
+                createItem("dsn", "b"));
+        final List<SpecificationItem> second = List.of(createItem("req", "c"),
+                createItem("dsn", "d"));
+        final Path writerFile = tempDir.resolve("writer.xml");
+        try (SpecobjectWriter writer = SpecobjectWriter.create(writerFile))
+        {
+            writer.write(first);
+            writer.write(second);
+        }
+        final Path oftFile = tempDir.resolve("oft.xml");
+        oft.exportToPath(List.of(first.get(0), first.get(1), second.get(0), second.get(1)),
+                oftFile);
+        assertItemsEqual(importSorted(oftFile), importSorted(writerFile));
+    }
+
+    private static SpecificationItem createItem(final String artifactType, final String name)
+    {
+        return SpecificationItem.builder() //
+                .id(SpecificationItemId.createId(artifactType, name, 1)) //
+                .title(name) //
+                .location(Location.create("src/" + name + ".txt", 1)) //
+                .addCoveredId(SpecificationItemId.createId("feat", name, 1)) //
+                .build();
+    }
+
+    private void assertSameAsOftExport(final List<SpecificationItem> items)
+    {
+        final Path writerFile = tempDir.resolve("writer.xml");
+        try (SpecobjectWriter writer = SpecobjectWriter.create(writerFile))
+        {
+            writer.write(items);
+        }
+        final Path oftFile = tempDir.resolve("oft.xml");
+        oft.exportToPath(items, oftFile);
+        assertItemsEqual(importSorted(oftFile), importSorted(writerFile));
+    }
+
+    private List<SpecificationItem> importSorted(final Path file)
+    {
+        return oft.importItems(ImportSettings.builder().addInputs(file).build()).stream()
+                .sorted(Comparator.comparing(item -> item.getId().toString())).toList();
+    }
+}
@@ -0,0 +1,128 @@
+package org.itsallcode.openfasttrace.gradle.task.importer;
+
+import static org.itsallcode.openfasttrace.gradle.task.SpecificationItemAssertions.assertItemsEqual;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.importer.tag.config.PathConfig;
+import org.itsallcode.openfasttrace.core.Oft;
+import org.itsallcode.openfasttrace.core.OftRunner;
+import org.itsallcode.openfasttrace.gradle.task.cache.ParsedItemCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CachingFileImporterTest
+{
+    private final Oft oft = new OftRunner();
+    private final ParsedItemCache cache = new ParsedItemCache(1024 * 1024);
+
+    @TempDir
+    Path tempDir;
+    private Path specFile;
+    private Path sourceFile;
+    private Path untaggedFile;
+
+    @BeforeEach
+    void createFiles() throws IOException
+    {
+        specFile = tempDir.resolve("spec.md");
+        Files.writeString(specFile, "# Design A\n`dsn~a~1`\n\nDescription\n");
+        sourceFile = tempDir.resolve("Source.java");
+        Files.writeString(sourceFile, "// [[a:1]]\n");
+        untaggedFile = tempDir.resolve("Untagged.java");
+        Files.writeString(untaggedFile, "// no tags\n");
+    }
+
+    @Test
+    void testSecondImportIsCacheHit()
+    {
+        final CachingFileImporter importer = createImporter(List.of(), "none");
+        final List<SpecificationItem> firstItems = importer.importFile(specFile);
+        final List<SpecificationItem> secondItems = importer.importFile(specFile);
+        assertAll(() -> assertEquals(1, importer.getHits()),
+                () -> assertEquals(1, importer.getMisses()),
+                () -> assertEquals(1, firstItems.size()),
+                () -> assertSame(firstItems, secondItems));
+    }
+
+    @Test
+    void testImporterForSameSettingsUsesSharedCache()
+    {
+        createImporter(List.of(), "none").importFile(specFile);
+        final CachingFileImporter importer = createImporter(List.of(), "none");
+        importer.importFile(specFile);
+        assertAll(() -> assertEquals(1, importer.getHits()),
+                () -> assertEquals(0, importer.getMisses()));
+    }
+
+    @Test
+    void testPrefilterRunsBeforeCacheLookup()
+    {
+        final CachingFileImporter importer = createImporter(List.of(), "none");
+        importer.importFile(untaggedFile);
+        final List<SpecificationItem> items = importer.importFile(untaggedFile);
+        assertAll(() -> assertEquals(0, importer.getHits()),
+                () -> assertEquals(0, importer.getMisses()),
+                () -> assertEquals(2, importer.getTagPrefilterSkipped()),
+                () -> assertEquals(List.of(), items));
+    }
+
+    @Test
+    void testPrefilterCountsCacheHits()
+    {
+        final CachingFileImporter importer = createImporter(List.of(), "none");
+        importer.importFile(sourceFile);
+        importer.importFile(sourceFile);
+        assertAll(() -> assertEquals(1, importer.getHits()),
+                () -> assertEquals(1, importer.getMisses()),
+                () -> assertEquals(2, importer.getTagPrefilterScanned()));
+    }
+
+    @Test
+    void testChangedContentIsCacheMiss() throws IOException
+    {
+        final CachingFileImporter importer = createImporter(List.of(), "none");
+        importer.importFile(specFile);
+        Files.writeString(specFile, "# Design B\n`dsn~b~1`\n\nDescription\n");
+        final List<SpecificationItem> items = importer.importFile(specFile);
+        assertAll(() -> assertEquals(0, importer.getHits()),
+                () -> assertEquals(2, importer.getMisses()),
+                () -> assertEquals("b", items.get(0).getName()));
+    }
+
+    @Test
+    void testChangedTagConfigurationIsCacheMiss()
+    {
+        final CachingFileImporter importer = createImporter(List.of(), "none");
+        final List<SpecificationItem> itemsWithoutConfig = importer.importFile(sourceFile);
+        final PathConfig pathConfig = PathConfig.builder() //
+                .patternPathMatcher("glob:**/*.java") //
+                .tagArtifactType("impl") //
+                .coveredItemArtifactType("dsn") //
+                .coveredItemNamePrefix("") //
+                .build();
+        final CachingFileImporter changedImporter = createImporter(List.of(pathConfig),
+                "java-to-dsn");
+        final List<SpecificationItem> itemsWithConfig = changedImporter.importFile(sourceFile);
+        assertAll(() -> assertEquals(0, changedImporter.getHits()),
+                () -> assertEquals(1, changedImporter.getMisses()),
+                () -> assertEquals(List.of(), itemsWithoutConfig),
+                () -> assertItemsEqual(
+                        new FileImporter(oft, List.of(pathConfig)).importFile(sourceFile),
+                        itemsWithConfig),
+                () -> assertEquals(1, itemsWithConfig.size()));
+    }
+
+    private CachingFileImporter createImporter(final List<PathConfig> pathConfigs,
+            final String settingsFingerprint)
+    {
+        return new CachingFileImporter(oft, pathConfigs,
+                ImporterFactoryTypes.load().createFactories(), cache, settingsFingerprint);
+    }
+}
@@ -0,0 +1,56 @@
+package org.itsallcode.openfasttrace.gradle.task.importer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Set;
+
+import org.itsallcode.openfasttrace.api.core.Location;
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.core.SpecificationItemId;
+import org.junit.jupiter.api.Test;
+
+class DuplicateItemFilterTest
+{
+    private static final String FRAGMENT = "sub1/build/reports/requirements.xml";
+
+    private final DuplicateItemFilter filter = new DuplicateItemFilter(Set.of(FRAGMENT));
+
+    @Test
+    void testInputFileItemsAreKept()
+    {
+        final List<SpecificationItem> items = List.of(item("a", "src/A.java"),
+                item("a", "src/A.java"));
+        assertAll(() -> assertEquals(items, filter.filter("src/A.java", items)),
+                () -> assertEquals(0, filter.getDuplicates()));
+    }
+
+    @Test
+    void testFragmentItemsFromInputFilesAreDropped()
+    {
+        final SpecificationItem inputItem = item("a", "src/A.java");
+        final SpecificationItem otherItem = item("b", "sub1/src/B.java");
+        final SpecificationItem itemWithoutOrigin = SpecificationItem.builder()
+                .id(SpecificationItemId.createId("dsn", "c", 1)).build();
+        filter.filter("src/A.java", List.of(inputItem));
+        final List<SpecificationItem> fragmentItems = filter.filter(FRAGMENT,
+                List.of(item("a", "src/A.java"), otherItem, itemWithoutOrigin));
+        assertAll(() -> assertEquals(List.of(otherItem, itemWithoutOrigin), fragmentItems),
+                () -> assertEquals(1, filter.getDuplicates()));
+    }
+
+    @Test
+    void testFragmentIsRecognized()
+    {
+        assertAll(() -> assertTrue(filter.isFragment(FRAGMENT)),
+                () -> assertFalse(filter.isFragment("src/A.java")));
+    }
+
+    private static SpecificationItem item(final String name, final String path)
+    {
+        return SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("dsn", name, 1)) //
+                .location(Location.create(path, 1)) //
+                .build();
+    }
+}
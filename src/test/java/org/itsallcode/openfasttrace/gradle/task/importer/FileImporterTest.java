@@ -0,0 +1,71 @@
+package org.itsallcode.openfasttrace.gradle.task.importer;
+
+import static org.itsallcode.openfasttrace.gradle.task.SpecificationItemAssertions.assertItemsEqual;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.importer.ImportSettings;
+import org.itsallcode.openfasttrace.api.importer.tag.config.PathConfig;
+import org.itsallcode.openfasttrace.core.Oft;
+import org.itsallcode.openfasttrace.core.OftRunner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FileImporterTest
+{
+    private final Oft oft = new OftRunner();
+
+    @TempDir
+    Path tempDir;
+    private Path specFile;
+
+    @BeforeEach
+    void createFiles() throws IOException
+    {
+        specFile = tempDir.resolve("spec.md");
+        Files.writeString(specFile, "# Design A\n`dsn~a~1`\n\nCovers: [[a:1]]\n");
+    }
+
+    @Test
+    void testFileMatchedByOneImporterIsImported()
+    {
+        final FileImporter importer = new FileImporter(oft, List.of());
+        final List<SpecificationItem> items = importer.importFile(specFile);
+        assertAll(() -> assertTrue(importer.supportsFile(specFile)),
+                () -> assertEquals("MarkdownImporterFactory",
+                        importer.getImporterName(specFile)),
+                () -> assertEquals(1, items.size()),
+                () -> assertItemsEqual(importWithOft(List.of()), items));
+    }
+
+    @Test
+    void testFileMatchedByTwoImportersIsSkippedLikeOft()
+    {
+        final List<PathConfig> pathConfigs = List.of(PathConfig.builder() //
+                .patternPathMatcher("glob:**/*.md") //
+                .tagArtifactType("impl") //
+                .coveredItemArtifactType("dsn") //
+                .coveredItemNamePrefix("") //
+                .build());
+        final FileImporter importer = new FileImporter(oft, pathConfigs);
+        final List<SpecificationItem> items = importer.importFile(specFile);
+        assertAll(() -> assertFalse(importer.supportsFile(specFile)),
+                () -> assertEquals("none", importer.getImporterName(specFile)),
+                () -> assertEquals(List.of(), items),
+                () -> assertItemsEqual(importWithOft(pathConfigs), items));
+    }
+
+    private List<SpecificationItem> importWithOft(final List<PathConfig> pathConfigs)
+    {
+        return oft.importItems(ImportSettings.builder() //
+                .addInputs(tempDir) //
+                .pathConfigs(pathConfigs) //
+                .build());
+    }
+}
@@ -0,0 +1,127 @@
+package org.itsallcode.openfasttrace.gradle.task.importer;
+
+import static org.itsallcode.openfasttrace.gradle.task.SpecificationItemAssertions.assertItemsEqual;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.itsallcode.openfasttrace.api.FilterSettings;
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.importer.ImportSettings;
+import org.itsallcode.openfasttrace.core.Oft;
+import org.itsallcode.openfasttrace.core.OftRunner;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+/**
+ * Compares {@link ItemFilter} with the filter OpenFastTrace applies during
+ * import.
+ */
+class ItemFilterTest
+{
+    private static final String SPECIFICATION = """
+            # Feature A
+            `feat~a~1`
+
+            Feature with tag alpha.
+
+            Needs: req, dsn
+
+            Tags: alpha
+
+            # Requirement B
+            `req~b~1`
+
+            Requirement with tag beta.
+
+            Covers:
+
+            * `feat~a~1`
+
+            Needs: dsn
+
+            Tags: beta
+
+            # Requirement C
+            `req~c~1`
+
+            Requirement without tags.
+
+            Covers:
+
+            * `feat~a~1`
+
+            Needs: dsn, impl
+
+            # Design D
+            `dsn~d~1`
+
+            Design with tags alpha and beta.
+
+            Covers:
+
+            * `req~b~1`
+            * `req~c~1`
+
+            Needs: impl
+
+            Tags: alpha, beta
+
+            # Design E
+            `dsn~e~1`
+
+            Design with tag gamma.
+
+            Depends:
+
+            * `req~c~1`
+
+            Tags: gamma
+            """;
+
+    private final Oft oft = new OftRunner();
+
+    @ParameterizedTest(name = "artifactTypes={0}, tags={1}, withoutTags={2}")
+    @CsvSource({ //
+            "'', '', true", //
+            "'', '', false", //
+            "feat|req, '', true", //
+            "dsn, '', true", //
+            "'', alpha, true", //
+            "'', alpha, false", //
+            "'', alpha|gamma, false", //
+            "req|dsn, beta, true", //
+            "req|dsn, beta, false", //
+            "impl, '', true" })
+    void testFilterMatchesOftImportFilter(final String artifactTypes, final String tags,
+            final boolean withoutTags, @TempDir final Path tempDir) throws IOException
+    {
+        final Path file = tempDir.resolve("spec.md");
+        Files.writeString(file, SPECIFICATION, StandardCharsets.UTF_8);
+        final FilterSettings filterSettings = FilterSettings.builder() //
+                .artifactTypes(toSet(artifactTypes)) //
+                .tags(toSet(tags)) //
+                .withoutTags(withoutTags) //
+                .build();
+        final List<SpecificationItem> allItems = oft
+                .importItems(ImportSettings.builder().addInputs(file).build());
+        final List<SpecificationItem> filteredByOft = oft.importItems(ImportSettings.builder() //
+                .addInputs(file) //
+                .filter(filterSettings) //
+                .build());
+        assertItemsEqual(filteredByOft, new ItemFilter(filterSettings).filter(allItems));
+    }
+
+    private static Set<String> toSet(final String values)
+    {
+        return values.isEmpty() ? Set.of()
+                : Arrays.stream(values.split("\\|")).collect(Collectors.toSet());
+    }
+}
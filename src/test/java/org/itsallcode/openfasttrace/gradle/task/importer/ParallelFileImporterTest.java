@@ -0,0 +1,192 @@
+package org.itsallcode.openfasttrace.gradle.task.importer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.IntStream;
+
+import org.itsallcode.openfasttrace.api.core.SpecificationItem;
+import org.itsallcode.openfasttrace.api.core.SpecificationItemId;
+import org.itsallcode.openfasttrace.core.OftRunner;
+import org.itsallcode.openfasttrace.gradle.task.cache.BinaryRequirementsFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class ParallelFileImporterTest
+{
+    @Test
+    void testResultHasOrderOfInputFiles()
+    {
+        final List<Path> files = createFiles(100);
+        final Map<Path, List<SpecificationItem>> result = new ParallelFileImporter(
+                new FileNameImporter(), 4).importFiles(files);
+        assertEquals(files, new ArrayList<>(result.keySet()));
+        for (final Path file : files)
+        {
+            assertEquals(file.toString(), result.get(file).get(0).getName());
+        }
+    }
+
+    @Test
+    void testImportsSingleFileInCallingThread()
+    {
+        final FileNameImporter fileImporter = new FileNameImporter();
+        final List<Path> files = createFiles(1);
+        final Map<Path, List<SpecificationItem>> result = new ParallelFileImporter(fileImporter,
+                4).importFiles(files);
+        assertEquals(files, new ArrayList<>(result.keySet()));
+        assertEquals(Set.of(Thread.currentThread().getName()), fileImporter.getThreadNames());
+    }
+
+    @Test
+    void testUsesMultipleThreads()
+    {
+        final FileNameImporter fileImporter = new FileNameImporter();
+        new ParallelFileImporter(fileImporter, 4).importFiles(createFiles(100));
+        assertFalse(fileImporter.getThreadNames().contains(Thread.currentThread().getName()));
+    }
+
+    @Test
+    void testBatchesShareGivenExecutor()
+    {
+        final FileNameImporter fileImporter = new FileNameImporter();
+        final ParallelFileImporter importer = new ParallelFileImporter(fileImporter, 4);
+        final List<Path> files = createFiles(100);
+        final ExecutorService executor = importer.createExecutor();
+        try
+        {
+            for (int start = 0; start < files.size(); start += 4)
+            {
+                final List<Path> batch = files.subList(start, start + 4);
+                assertEquals(batch,
+                        new ArrayList<>(importer.importFiles(batch, executor).keySet()));
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        assertThat(fileImporter.getThreadNames().size(), lessThanOrEqualTo(4));
+    }
+
+    @Test
+    void testImporterExceptionIsRethrown()
+    {
+        final IllegalStateException exception = new IllegalStateException("expected");
+        final FileImporter failingImporter = new FileNameImporter()
+        {
+            @Override
+            public List<SpecificationItem> importFile(final Path file,
+                    final SelectedImporter importer)
+            {
+                if (file.toString().equals("file42"))
+                {
+                    throw exception;
+                }
+                return super.importFile(file, importer);
+            }
+        };
+        final ParallelFileImporter importer = new ParallelFileImporter(failingImporter, 4);
+        final List<Path> files = createFiles(100);
+        assertSame(exception, assertThrows(IllegalStateException.class,
+                () -> importer.importFiles(files)));
+    }
+
+    @Test
+    void testEmitsImportFileEventPerFile(@TempDir final Path tempDir) throws IOException
+    {
+        final Path markdownFile = tempDir.resolve("spec.md");
+        Files.writeString(markdownFile, "# Design A\n`dsn~a~1`\n\n# Design B\n`dsn~b~1`\n");
+        final Path binaryFile = tempDir.resolve("requirements.oftbin");
+        BinaryRequirementsFormat.write(binaryFile, List.of(SpecificationItem.builder()
+                .id(SpecificationItemId.createId("req", "c", 1)).build()));
+        final Path recordingFile = tempDir.resolve("recording.jfr");
+        try (Recording recording = new Recording())
+        {
+            recording.enable("org.itsallcode.openfasttrace.ImportFile");
+            recording.start();
+            new ParallelFileImporter(new FileImporter(new OftRunner(), List.of()), 1)
+                    .importFiles(List.of(markdownFile, binaryFile));
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+        final List<String> events = RecordingFile.readAllEvents(recordingFile).stream()
+                .map(ParallelFileImporterTest::describe).toList();
+        assertEquals(List.of(markdownFile + " MarkdownImporterFactory 2",
+                binaryFile + " BinaryRequirementsFormat 1"), events);
+    }
+
+    private static String describe(final RecordedEvent event)
+    {
+        return event.getString("path") + " " + event.getString("importer") + " "
+                + event.getInt("itemCount");
+    }
+
+    private static List<Path> createFiles(final int count)
+    {
+        return IntStream.range(0, count).mapToObj(i -> Path.of("file" + i)).toList();
+    }
+
+    /**
+     * Creates one item per file named like the file. Earlier files take
+     * longer, so that later shards finish first.
+     */
+    private static class FileNameImporter extends FileImporter
+    {
+        private final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+        FileNameImporter()
+        {
+            super(new OftRunner(), List.of(), new ArrayList<>());
+        }
+
+        @Override
+        public List<SpecificationItem> importFile(final Path file,
+                final SelectedImporter importer)
+        {
+            threadNames.add(Thread.currentThread().getName());
+            final int index = Integer.parseInt(file.toString().substring("file".length()));
+            if (index < 10)
+            {
+                sleep(10 - index);
+            }
+            return List.of(SpecificationItem.builder()
+                    .id(SpecificationItemId.createId("feat", file.toString(), 1)).build());
+        }
+
+        @Override
+        public SelectedImporter selectImporter(final Path file)
+        {
+            return new SelectedImporter("test", null);
+        }
+
+        Set<String> getThreadNames()
+        {
+            return threadNames;
+        }
+
+        private static void sleep(final long millis)
+        {
+            try
+            {
+                Thread.sleep(millis);
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
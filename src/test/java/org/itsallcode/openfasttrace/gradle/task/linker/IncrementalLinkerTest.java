@@ -0,0 +1,188 @@
+package org.itsallcode.openfasttrace.gradle.task.linker;
+
+import static java.util.stream.Collectors.joining;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import org.itsallcode.openfasttrace.api.core.*;
+import org.itsallcode.openfasttrace.core.Oft;
+import org.itsallcode.openfasttrace.core.OftRunner;
+import org.junit.jupiter.api.Test;
+
+class IncrementalLinkerTest
+{
+    private final Oft oft = new OftRunner();
+
+    @Test
+    void testFirstLinkMatchesFullLink()
+    {
+        final List<SpecificationItem> items = createItems();
+        final IncrementalLinker.Result result = new IncrementalLinker().link(oft, items);
+        assertAll(() -> assertEquals(3, result.componentCount()),
+                () -> assertEquals(0, result.reusedComponentCount()),
+                () -> assertSameAsFullTrace(items, result));
+    }
+
+    @Test
+    void testLinkAfterEditMatchesFullLink()
+    {
+        final IncrementalLinker linker = new IncrementalLinker();
+        final List<SpecificationItem> items = createItems();
+        linker.link(oft, items);
+        final List<SpecificationItem> editedItems = new ArrayList<>(items);
+        editedItems.set(4, SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("req", "b", 1)) //
+                .addCoveredId(SpecificationItemId.createId("feat", "b", 1)) //
+                .addNeedsArtifactType("dsn") //
+                .build());
+        final IncrementalLinker.Result result = linker.link(oft, editedItems);
+        assertAll(() -> assertEquals(3, result.componentCount()),
+                () -> assertEquals(2, result.reusedComponentCount()),
+                () -> assertSameAsFullTrace(editedItems, result));
+    }
+
+    @Test
+    void testLinkAfterAddingCoverageMatchesFullLink()
+    {
+        final IncrementalLinker linker = new IncrementalLinker();
+        final List<SpecificationItem> items = createItems();
+        linker.link(oft, items);
+        final List<SpecificationItem> editedItems = new ArrayList<>(items);
+        editedItems.add(SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("impl", "c", 1)) //
+                .addCoveredId(SpecificationItemId.createId("dsn", "c", 1)) //
+                .build());
+        final IncrementalLinker.Result result = linker.link(oft, editedItems);
+        assertAll(() -> assertEquals(3, result.componentCount()),
+                () -> assertEquals(2, result.reusedComponentCount()),
+                () -> assertSameAsFullTrace(editedItems, result));
+    }
+
+    @Test
+    void testViewWithCompleteComponentsReusesThem()
+    {
+        final IncrementalLinker linker = new IncrementalLinker();
+        final List<SpecificationItem> items = createItems();
+        linker.link(oft, items);
+        final List<SpecificationItem> viewItems = items.stream()
+                .filter(item -> !item.getId().getName().equals("b")).toList();
+        final IncrementalLinker.Result result = linker.link(oft, viewItems);
+        assertAll(() -> assertEquals(2, result.componentCount()),
+                () -> assertEquals(2, result.reusedComponentCount()),
+                () -> assertSameAsFullTrace(viewItems, result));
+    }
+
+    @Test
+    void testViewWithIncompleteComponentRelinksIt()
+    {
+        final IncrementalLinker linker = new IncrementalLinker();
+        final List<SpecificationItem> items = createItems();
+        linker.link(oft, items);
+        final List<SpecificationItem> viewItems = items.stream()
+                .filter(item -> !item.getId().getArtifactType().equals("feat")).toList();
+        final IncrementalLinker.Result result = linker.link(oft, viewItems);
+        assertAll(() -> assertEquals(3, result.componentCount()),
+                () -> assertEquals(1, result.reusedComponentCount()),
+                () -> assertSameAsFullTrace(viewItems, result));
+    }
+
+    @Test
+    void testCopiesOfItemsAreReused()
+    {
+        final IncrementalLinker linker = new IncrementalLinker();
+        linker.link(oft, createItems());
+        final List<SpecificationItem> items = createItems();
+        final IncrementalLinker.Result result = linker.link(oft, items);
+        assertAll(() -> assertEquals(3, result.reusedComponentCount()),
+                () -> assertSameAsFullTrace(items, result));
+    }
+
+    @Test
+    void testItemsWithOtherOriginAreNotReused()
+    {
+        final IncrementalLinker linker = new IncrementalLinker();
+        linker.link(oft, createItems());
+        final List<SpecificationItem> items = new ArrayList<>(createItems());
+        items.set(5, SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("dsn", "c", 1)) //
+                .addNeedsArtifactType("impl") //
+                .location("moved/spec.md", 1) //
+                .build());
+        final IncrementalLinker.Result result = linker.link(oft, items);
+        assertAll(() -> assertEquals(2, result.reusedComponentCount()),
+                () -> assertEquals("moved/spec.md",
+                        findItem(result, "c").getItem().getLocation().getPath()),
+                () -> assertSameAsFullTrace(items, result));
+    }
+
+    private static LinkedSpecificationItem findItem(final IncrementalLinker.Result result,
+            final String name)
+    {
+        return result.items().stream().filter(item -> item.getId().getName().equals(name))
+                .findFirst().orElseThrow();
+    }
+
+    private void assertSameAsFullTrace(final List<SpecificationItem> items,
+            final IncrementalLinker.Result result)
+    {
+        final Trace expected = oft.trace(oft.link(items));
+        final Trace actual = result.toTrace();
+        assertAll(() -> assertEquals(expected.count(), actual.count()),
+                () -> assertEquals(expected.countDefects(), actual.countDefects()),
+                () -> assertEquals(describe(expected.getItems()), describe(actual.getItems())),
+                () -> assertEquals(describe(expected.getDefectItems()),
+                        describe(actual.getDefectItems())));
+    }
+
+    private static List<String> describe(final List<LinkedSpecificationItem> items)
+    {
+        return items.stream().map(item -> item.getId() + " defect=" + item.isDefect()
+                + " coverage=" + item.getDeepCoverageStatus() + " links=" + describeLinks(item))
+                .sorted().toList();
+    }
+
+    private static String describeLinks(final LinkedSpecificationItem item)
+    {
+        return new TreeMap<>(item.getLinks()).entrySet().stream()
+                .map(entry -> entry.getKey() + ":" + entry.getValue().stream()
+                        .map(link -> link.getId().toString()).sorted().toList())
+                .collect(joining(", "));
+    }
+
+    /**
+     * Three components: {@code a} is completely covered, {@code b} has an
+     * uncovered requirement and an outdated link, {@code c} needs an
+     * implementation.
+     */
+    private static List<SpecificationItem> createItems()
+    {
+        return List.of(SpecificationItem.builder() //
+                .id(SpecificationItemId.createId("feat", "a", 1)) //
+                .addNeedsArtifactType("req") //
+                .build(),
+                SpecificationItem.builder() //
+                        .id(SpecificationItemId.createId("req", "a", 1)) //
+                        .addCoveredId(SpecificationItemId.createId("feat", "a", 1)) //
+                        .addNeedsArtifactType("dsn") //
+                        .build(),
+                SpecificationItem.builder() //
+                        .id(SpecificationItemId.createId("dsn", "a", 1)) //
+                        .addCoveredId(SpecificationItemId.createId("req", "a", 1)) //
+                        .build(),
+                SpecificationItem.builder() //
+                        .id(SpecificationItemId.createId("feat", "b", 2)) //
+                        .addNeedsArtifactType("req") //
+                        .build(),
+                SpecificationItem.builder() //
+                        .id(SpecificationItemId.createId("req", "b", 1)) //
+                        .addCoveredId(SpecificationItemId.createId("feat", "b", 1)) //
+                        .build(),
+                SpecificationItem.builder() //
+                        .id(SpecificationItemId.createId("dsn", "c", 1)) //
+                        .addNeedsArtifactType("impl") //
+                        .build());
+    }
+}
@@ -0,0 +1,102 @@
+package org.itsallcode.openfasttrace.gradle.task.metrics;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+class TaskMetricsTest
+{
+    @Test
+    void testNamesAreEscaped()
+    {
+        try (TaskMetrics metrics = new TaskMetrics("task \"name\""))
+        {
+            metrics.count("defects.view \"a\\b\"\n\t\u0001", 2);
+            metrics.addPhase("phase \"x\"", 0, 0);
+            final String json = metrics.toJson();
+            assertAll(() -> assertThat(json, containsString("\"task\": \"task \\\"name\\\"\"")),
+                    () -> assertThat(json,
+                            containsString("\"defects.view \\\"a\\\\b\\\"\\n\\t\\u0001\": 2")),
+                    () -> assertThat(json, containsString("\"phase \\\"x\\\"\": {")));
+        }
+    }
+
+    @Test
+    void testPhaseCpuTimeExcludesOtherThreads()
+    {
+        try (TaskMetrics metrics = new TaskMetrics("test"))
+        {
+            metrics.phase("wait", () -> {
+                final Thread busyThread = new Thread(() -> {
+                    final long end = System.nanoTime() + 300_000_000L;
+                    while (System.nanoTime() < end)
+                    {
+                        // Use CPU in another thread
+                    }
+                });
+                busyThread.start();
+                join(busyThread);
+            });
+            final String json = metrics.toJson();
+            assertThat(getMillis(json, "wait", "wallTimeMillis"), greaterThanOrEqualTo(300.0));
+            assertThat(getMillis(json, "wait", "cpuTimeMillis"), lessThan(100.0));
+        }
+    }
+
+    @Test
+    void testPhaseCpuTimeIncludesCurrentThread()
+    {
+        try (TaskMetrics metrics = new TaskMetrics("test"))
+        {
+            metrics.phase("busy", () -> {
+                final long end = System.nanoTime() + 200_000_000L;
+                while (System.nanoTime() < end)
+                {
+                    // Use CPU in the current thread
+                }
+            });
+            assertThat(getMillis(metrics.toJson(), "busy", "cpuTimeMillis"),
+                    greaterThanOrEqualTo(100.0));
+        }
+    }
+
+    @Test
+    void testPeakHeapIncludesMemoryUsedByPhase()
+    {
+        final int size = 64 * 1024 * 1024;
+        try (TaskMetrics metrics = new TaskMetrics("test"))
+        {
+            final byte[] data = metrics.phase("allocate", () -> new byte[size]);
+            assertThat(metrics.getPeakHeapBytes(), greaterThanOrEqualTo((long) size));
+            assertEquals(size, data.length);
+        }
+    }
+
+    private static double getMillis(final String json, final String phase, final String name)
+    {
+        final Matcher matcher = Pattern
+                .compile("\"" + phase + "\": \\{ .*\"" + name + "\": ([0-9.]+)").matcher(json);
+        assertTrue(matcher.find(), "Phase " + phase + " not found in " + json);
+        return Double.parseDouble(matcher.group(1));
+    }
+
+    private static void join(final Thread thread)
+    {
+        try
+        {
+            thread.join();
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.itsallcode.openfasttrace.gradle.corpus;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import org.itsallcode.openfasttrace.gradle.corpus.RequirementsCorpusGenerator.FileSizeDistribution;
+
+/**
+ * Command line entry point for generating a corpus. Arguments are the output
+ * directory followed by optional {@code key=value} settings, e.g.
+ * {@code requirementCount=10000 artifactTypes=req:dsn defectRatio=0.05}.
+ */
+public final class GenerateCorpus
+{
+    private GenerateCorpus()
+    {
+        // Not instantiated
+    }
+
+    public static void main(final String[] args)
+    {
+        if (args.length == 0)
+        {
+            throw new IllegalArgumentException("Missing output directory");
+        }
+        final Map<String, String> settings = new HashMap<>();
+        for (final String arg : Arrays.asList(args).subList(1, args.length))
+        {
+            final int separator = arg.indexOf('=');
+            if (separator < 0)
+            {
+                throw new IllegalArgumentException("Expected key=value but got '" + arg + "'");
+            }
+            settings.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        final RequirementsCorpusGenerator.Builder builder = RequirementsCorpusGenerator.builder();
+        get(settings, "requirementCount").map(Integer::parseInt)
+                .ifPresent(builder::requirementCount);
+        get(settings, "artifactTypes").map(types -> List.of(types.split(":")))
+                .ifPresent(builder::artifactTypes);
+        get(settings, "coverageDepth").map(Integer::parseInt).ifPresent(builder::coverageDepth);
+        get(settings, "tagDensity").map(Double::parseDouble).ifPresent(builder::tagDensity);
+        get(settings, "defectRatio").map(Double::parseDouble).ifPresent(builder::defectRatio);
+        get(settings, "seed").map(Long::parseLong).ifPresent(builder::seed);
+        builder.fileSize(
+                FileSizeDistribution.valueOf(settings.getOrDefault("fileSizeDistribution",
+                        FileSizeDistribution.UNIFORM.name()).toUpperCase(Locale.ROOT)),
+                Integer.parseInt(settings.getOrDefault("minItemsPerFile", "10")),
+                Integer.parseInt(settings.getOrDefault("maxItemsPerFile", "100")));
+        final GeneratedCorpus corpus = builder.build().generate(Path.of(args[0]));
+        System.out.println("Generated " + corpus.itemCount() + " items in "
+                + corpus.specFiles().size() + " specification and " + corpus.sourceFiles().size()
+                + " source files with " + corpus.uncoveredCount()
+                + " uncovered requirements in " + corpus.directory());
+    }
+
+    private static Optional<String> get(final Map<String, String> settings, final String key)
+    {
+        return Optional.ofNullable(settings.get(key));
+    }
+}
@@ -0,0 +1,57 @@
+package org.itsallcode.openfasttrace.gradle.corpus;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.itsallcode.openfasttrace.api.importer.tag.config.PathConfig;
+
+/**
+ * Files of a corpus created by {@link RequirementsCorpusGenerator}.
+ *
+ * @param directory
+ *            root directory of the corpus, contains
+ *            {@code requirements.gradle} that configures
+ *            {@code requirementTracing} for the corpus
+ * @param specDirectory
+ *            directory of the Markdown specifications
+ * @param sourceDirectory
+ *            directory of the tagged source files
+ * @param specFiles
+ *            Markdown specifications
+ * @param sourceFiles
+ *            tagged source files
+ * @param itemCount
+ *            number of requirements and coverage tags
+ * @param uncoveredCount
+ *            number of requirements on the last level without coverage
+ * @param coveredArtifactType
+ *            artifact type of the requirements covered by tags
+ * @param tagArtifactType
+ *            artifact type of the tags
+ */
+public record GeneratedCorpus(Path directory, Path specDirectory, Path sourceDirectory,
+        List<Path> specFiles, List<Path> sourceFiles, int itemCount, int uncoveredCount,
+        String coveredArtifactType, String tagArtifactType)
+{
+    public List<Path> allFiles()
+    {
+        final List<Path> files = new ArrayList<>(specFiles);
+        files.addAll(sourceFiles);
+        return files;
+    }
+
+    /**
+     * @return tag importer configuration for the source files, equivalent to
+     *         {@code requirements.gradle}
+     */
+    public PathConfig createPathConfig()
+    {
+        return PathConfig.builder() //
+                .coveredItemArtifactType(coveredArtifactType) //
+                .coveredItemNamePrefix("") //
+                .tagArtifactType(tagArtifactType) //
+                .pathListMatcher(sourceFiles) //
+                .build();
+    }
+}
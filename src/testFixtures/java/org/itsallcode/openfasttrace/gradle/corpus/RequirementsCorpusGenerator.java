@@ -0,0 +1,335 @@
+package org.itsallcode.openfasttrace.gradle.corpus;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Generates a reproducible corpus of Markdown specifications and source files
+ * with short coverage tags.
+ * <p>
+ * Requirements form a tree with one level per artifact type up to the
+ * coverage depth. Each requirement needs the artifact type of the next level
+ * and is covered by requirements of that level. Requirements of the last
+ * level need {@code impl} and are covered by tags in the source files, except
+ * for a share of them given by the defect ratio.
+ */
+public final class RequirementsCorpusGenerator
+{
+    private static final String TAG_ARTIFACT_TYPE = "impl";
+
+    private final int requirementCount;
+    private final List<String> artifactTypes;
+    private final int coverageDepth;
+    private final double tagDensity;
+    private final double defectRatio;
+    private final FileSizeDistribution fileSizeDistribution;
+    private final int minItemsPerFile;
+    private final int maxItemsPerFile;
+    private final long seed;
+
+    private RequirementsCorpusGenerator(final Builder builder)
+    {
+        this.requirementCount = builder.requirementCount;
+        this.artifactTypes = List.copyOf(builder.artifactTypes);
+        this.coverageDepth = builder.coverageDepth > 0 ? builder.coverageDepth
+                : artifactTypes.size();
+        this.tagDensity = builder.tagDensity;
+        this.defectRatio = builder.defectRatio;
+        this.fileSizeDistribution = builder.fileSizeDistribution;
+        this.minItemsPerFile = builder.minItemsPerFile;
+        this.maxItemsPerFile = builder.maxItemsPerFile;
+        this.seed = builder.seed;
+        if (coverageDepth > artifactTypes.size())
+        {
+            throw new IllegalArgumentException("Coverage depth " + coverageDepth
+                    + " exceeds number of artifact types " + artifactTypes);
+        }
+        if (tagDensity <= 0 || tagDensity > 1)
+        {
+            throw new IllegalArgumentException("Tag density must be in (0, 1]: " + tagDensity);
+        }
+    }
+
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    /**
+     * Generate the corpus.
+     *
+     * @param directory
+     *            directory to which the corpus is written
+     * @return the generated corpus
+     */
+    public GeneratedCorpus generate(final Path directory)
+    {
+        final Random random = new Random(seed);
+        final Path specDirectory = directory.resolve("spec");
+        final Path sourceDirectory = directory.resolve("src");
+        final List<Path> specFiles = new ArrayList<>();
+        final int[] levelSizes = getLevelSizes();
+        for (int level = 0; level < coverageDepth; level++)
+        {
+            specFiles.addAll(writeLevel(specDirectory, level, levelSizes, random));
+        }
+        final String leafType = artifactTypes.get(coverageDepth - 1);
+        final List<String> coveredNames = new ArrayList<>();
+        int uncovered = 0;
+        for (int i = 0; i < levelSizes[coverageDepth - 1]; i++)
+        {
+            if (random.nextDouble() < defectRatio)
+            {
+                uncovered++;
+            }
+            else
+            {
+                coveredNames.add(name(leafType, i));
+            }
+        }
+        final List<Path> sourceFiles = writeSources(sourceDirectory, coveredNames, random);
+        final int specItemCount = Arrays.stream(levelSizes).sum();
+        final GeneratedCorpus corpus = new GeneratedCorpus(directory, specDirectory,
+                sourceDirectory, specFiles, sourceFiles, specItemCount + coveredNames.size(),
+                uncovered, leafType, TAG_ARTIFACT_TYPE);
+        write(directory.resolve("requirements.gradle"), createGradleConfig(corpus));
+        return corpus;
+    }
+
+    /**
+     * The last level contains the configured number of requirements, each
+     * higher level half as many as the level below.
+     */
+    private int[] getLevelSizes()
+    {
+        final int[] sizes = new int[coverageDepth];
+        for (int level = coverageDepth - 1; level >= 0; level--)
+        {
+            sizes[level] = level == coverageDepth - 1 ? requirementCount
+                    : Math.max(1, sizes[level + 1] / 2);
+        }
+        return sizes;
+    }
+
+    private List<Path> writeLevel(final Path specDirectory, final int level,
+            final int[] levelSizes, final Random random)
+    {
+        final String type = artifactTypes.get(level);
+        final String neededType = level == coverageDepth - 1 ? TAG_ARTIFACT_TYPE
+                : artifactTypes.get(level + 1);
+        final List<Path> files = new ArrayList<>();
+        int index = 0;
+        while (index < levelSizes[level])
+        {
+            final int end = Math.min(levelSizes[level], index + nextFileSize(random));
+            final Path file = specDirectory.resolve(type + "-" + index + ".md");
+            final StringBuilder content = new StringBuilder("# " + type + " " + index + "\n\n");
+            for (; index < end; index++)
+            {
+                content.append("## Requirement ").append(index).append("\n`").append(type)
+                        .append('~').append(name(type, index)).append("~1`\n\n")
+                        .append("Description of ").append(type).append(' ').append(index)
+                        .append(".\n\nNeeds: ").append(neededType).append("\n\n");
+                if (level > 0)
+                {
+                    final String parentType = artifactTypes.get(level - 1);
+                    final int parent = index * levelSizes[level - 1] / levelSizes[level];
+                    content.append("Covers:\n* `").append(parentType).append('~')
+                            .append(name(parentType, parent)).append("~1`\n\n");
+                }
+            }
+            write(file, content.toString());
+            files.add(file);
+        }
+        return files;
+    }
+
+    private List<Path> writeSources(final Path sourceDirectory, final List<String> coveredNames,
+            final Random random)
+    {
+        final List<Path> files = new ArrayList<>();
+        int index = 0;
+        while (index < coveredNames.size())
+        {
+            final int end = Math.min(coveredNames.size(), index + nextFileSize(random));
+            final Path file = sourceDirectory.resolve("Source" + files.size() + ".impl.java");
+            final StringBuilder content = new StringBuilder(
+                    "class Source" + files.size() + "\n{\n");
+            for (; index < end; index++)
+            {
+                final long fillerLines = Math.round(1 / tagDensity) - 1;
+                for (long line = 0; line < fillerLines; line++)
+                {
+                    content.append("    int value").append(index).append('_').append(line)
+                            .append(" = ").append(random.nextInt(1000)).append(";\n");
+                }
+                content.append("    // [[").append(coveredNames.get(index)).append(":1]]\n");
+            }
+            content.append("}\n");
+            write(file, content.toString());
+            files.add(file);
+        }
+        return files;
+    }
+
+    private int nextFileSize(final Random random)
+    {
+        final double value = random.nextDouble();
+        final double scaled = fileSizeDistribution == FileSizeDistribution.SKEWED
+                ? value * value * value
+                : value;
+        return minItemsPerFile + (int) Math.round(scaled * (maxItemsPerFile - minItemsPerFile));
+    }
+
+    private static String name(final String type, final int index)
+    {
+        return type + index;
+    }
+
+    private static String createGradleConfig(final GeneratedCorpus corpus)
+    {
+        return """
+                requirementTracing {
+                  inputDirectories = files('spec')
+                  tags {
+                    tag {
+                      paths = fileTree(dir: 'src/').include '*.impl.*'
+                      coveredItemNamePrefix = ''
+                      tagArtifactType = '%s'
+                      coveredItemArtifactType = '%s'
+                    }
+                  }
+                }
+                """.formatted(corpus.tagArtifactType(), corpus.coveredArtifactType());
+    }
+
+    private static void write(final Path file, final String content)
+    {
+        try
+        {
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, content, StandardCharsets.UTF_8);
+        }
+        catch (final IOException e)
+        {
+            throw new UncheckedIOException("Error writing file " + file, e);
+        }
+    }
+
+    /**
+     * Distribution of the number of items per file between the minimum and
+     * maximum.
+     */
+    public enum FileSizeDistribution
+    {
+        /** All sizes are equally likely. */
+        UNIFORM,
+        /** Most files are small, few files are large. */
+        SKEWED
+    }
+
+    public static final class Builder
+    {
+        private int requirementCount = 1000;
+        private List<String> artifactTypes = List.of("feat", "req", "dsn");
+        private int coverageDepth = 0;
+        private double tagDensity = 0.1;
+        private double defectRatio = 0;
+        private FileSizeDistribution fileSizeDistribution = FileSizeDistribution.UNIFORM;
+        private int minItemsPerFile = 10;
+        private int maxItemsPerFile = 100;
+        private long seed = 1;
+
+        private Builder()
+        {
+            // Use RequirementsCorpusGenerator.builder()
+        }
+
+        /**
+         * @param requirementCount
+         *            number of requirements on the last level, i.e. the
+         *            requirements covered by source files
+         * @return this builder
+         */
+        public Builder requirementCount(final int requirementCount)
+        {
+            this.requirementCount = requirementCount;
+            return this;
+        }
+
+        /**
+         * @param artifactTypes
+         *            artifact types of the requirement levels from top to
+         *            bottom
+         * @return this builder
+         */
+        public Builder artifactTypes(final List<String> artifactTypes)
+        {
+            this.artifactTypes = artifactTypes;
+            return this;
+        }
+
+        /**
+         * @param coverageDepth
+         *            number of requirement levels (default: number of artifact
+         *            types)
+         * @return this builder
+         */
+        public Builder coverageDepth(final int coverageDepth)
+        {
+            this.coverageDepth = coverageDepth;
+            return this;
+        }
+
+        /**
+         * @param tagDensity
+         *            share of source lines containing a coverage tag
+         * @return this builder
+         */
+        public Builder tagDensity(final double tagDensity)
+        {
+            this.tagDensity = tagDensity;
+            return this;
+        }
+
+        /**
+         * @param defectRatio
+         *            share of requirements on the last level that are not
+         *            covered
+         * @return this builder
+         */
+        public Builder defectRatio(final double defectRatio)
+        {
+            this.defectRatio = defectRatio;
+            return this;
+        }
+
+        public Builder fileSize(final FileSizeDistribution distribution,
+                final int minItemsPerFile, final int maxItemsPerFile)
+        {
+            this.fileSizeDistribution = distribution;
+            this.minItemsPerFile = Math.max(1, minItemsPerFile);
+            this.maxItemsPerFile = Math.max(this.minItemsPerFile, maxItemsPerFile);
+            return this;
+        }
+
+        /**
+         * @param seed
+         *            seed of the random generator, the same seed generates the
+         *            same corpus
+         * @return this builder
+         */
+        public Builder seed(final long seed)
+        {
+            this.seed = seed;
+            return this;
+        }
+
+        public RequirementsCorpusGenerator build()
+        {
+            return new RequirementsCorpusGenerator(this);
+        }
+    }
+}